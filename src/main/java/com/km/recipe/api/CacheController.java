@@ -0,0 +1,40 @@
+package com.km.recipe.api;
+
+import com.km.recipe.cache.RecipeLoadCoalescer;
+import com.km.recipe.cache.SecondLevelCacheStatistics;
+import com.km.recipe.dto.CacheRegionStatisticsDTO;
+import com.km.recipe.dto.SingleFlightStatisticsDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/cache")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final Optional<SecondLevelCacheStatistics> cacheStatistics;
+    private final RecipeLoadCoalescer loadCoalescer;
+
+    /**
+     * <p>Hit and miss counts of the second-level cache regions, not found while the statistics are disabled</p>
+     */
+    @GetMapping("/statistics")
+    public ResponseEntity<List<CacheRegionStatisticsDTO>> findStatistics() {
+        return cacheStatistics.map(statistics -> ResponseEntity.ok(statistics.findAll()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * <p>Executed and coalesced counts of the shared recipe loads</p>
+     */
+    @GetMapping("/single-flight")
+    public ResponseEntity<List<SingleFlightStatisticsDTO>> findSingleFlightStatistics() {
+        return ResponseEntity.ok(loadCoalescer.statistics());
+    }
+}
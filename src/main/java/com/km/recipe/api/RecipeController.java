@@ -1,19 +1,42 @@
 package com.km.recipe.api;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.km.recipe.cache.RecipeResponseCache;
+import com.km.recipe.cache.RecipeResponseCache.SerializedRecipe;
 import com.km.recipe.domain.Recipe;
 import com.km.recipe.dto.*;
 import com.km.recipe.dto.page.RecipePage;
+import com.km.recipe.exceptions.InvalidLookupRequestException;
+import com.km.recipe.exceptions.InvalidRequestException;
+import com.km.recipe.search.IngredientIndex;
+import com.km.recipe.search.InstructionIndex;
+import com.km.recipe.search.RecipeBitmapIndex;
+import com.km.recipe.search.SuggestionIndex;
 import com.km.recipe.service.contract.RecipeService;
+import com.km.recipe.util.RecipeCursor;
+import com.km.recipe.util.RecipeETag;
 import com.km.recipe.util.RecipeSpecificationBuilder;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.EnumUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -21,73 +44,140 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class RecipeController {
 
+    private static final String GZIP = "gzip";
+    private static final int SUGGESTIONS = 10;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final int MAX_LOOKUP_IDS = 100;
+
     private final RecipeService recipeService;
+    private final IngredientIndex ingredientIndex;
+    private final InstructionIndex instructionIndex;
+    private final RecipeBitmapIndex bitmapIndex;
+    private final SuggestionIndex suggestionIndex;
+    private final RecipeResponseCache responseCache;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<RecipeDTO> addRecipe(@Valid @RequestBody CreateRecipeDTO dto) {
         RecipeDTO recipeDTO = recipeService.create(dto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(recipeDTO);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(eTag(recipeDTO)).body(recipeDTO);
+    }
+
+    /**
+     * <p>Creates many recipes at once, answering with one result per recipe, in request order</p>
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<RecipeBatchResultDTO>> addRecipes(@Valid @RequestBody List<CreateRecipeDTO> dtos) {
+        return ResponseEntity.ok(recipeService.createAll(dtos));
+    }
+
+    /**
+     * <p>Looks up to {@value #MAX_LOOKUP_IDS} recipes up at once, answering with one result per id, in request
+     * order</p>
+     */
+    @PostMapping("/_mget")
+    public ResponseEntity<List<RecipeLookupResultDTO>> findRecipesById(@RequestBody List<UUID> recipeIds) {
+        if (recipeIds.size() > MAX_LOOKUP_IDS) {
+            throw new InvalidLookupRequestException(String.format("Cannot look up more than %d recipes at once",
+                    MAX_LOOKUP_IDS));
+        }
+        Map<UUID, RecipeDTO> recipes = recipeService.findAllById(recipeIds);
+        return ResponseEntity.ok(recipeIds.stream()
+                .map(id -> RecipeLookupResultDTO.builder()
+                        .id(id)
+                        .found(recipes.containsKey(id))
+                        .recipe(recipes.get(id))
+                        .build())
+                .toList());
     }
 
     @PutMapping("/{recipeId}")
     public ResponseEntity<RecipeDTO> updateRecipe(@PathVariable("recipeId") UUID recipeId,
-                                                  @RequestBody @Valid UpdateRecipeDTO dto) {
-        RecipeDTO recipeDTO = recipeService.update(recipeId, dto);
-        return ResponseEntity.ok(recipeDTO);
+                                                  @RequestBody @Valid UpdateRecipeDTO dto,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        RecipeDTO recipeDTO = recipeService.update(recipeId, dto, RecipeETag.version(ifMatch));
+        return ResponseEntity.ok().eTag(eTag(recipeDTO)).body(recipeDTO);
     }
 
     @PutMapping("/{recipeId}/ingredients")
     public ResponseEntity<RecipeDTO> updateIngredients(@PathVariable("recipeId") UUID recipeId,
-                                                       @RequestBody @Valid List<IngredientDTO> ingredients) {
-        RecipeDTO recipeDTO = recipeService.updateIngredients(recipeId, ingredients);
-        return ResponseEntity.ok(recipeDTO);
+                                                       @RequestBody @Valid List<IngredientDTO> ingredients,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        RecipeDTO recipeDTO = recipeService.updateIngredients(recipeId, ingredients, RecipeETag.version(ifMatch));
+        return ResponseEntity.ok().eTag(eTag(recipeDTO)).body(recipeDTO);
     }
 
     @PutMapping("/{recipeId}/instructions")
     public ResponseEntity<RecipeDTO> updateInstructions(@PathVariable("recipeId") UUID recipeId,
-                                                        @RequestBody @Valid List<InstructionDTO> instructions) {
-        RecipeDTO recipeDTO = recipeService.updateInstructions(recipeId, instructions);
-        return ResponseEntity.ok(recipeDTO);
+                                                        @RequestBody @Valid List<InstructionDTO> instructions,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        RecipeDTO recipeDTO = recipeService.updateInstructions(recipeId, instructions, RecipeETag.version(ifMatch));
+        return ResponseEntity.ok().eTag(eTag(recipeDTO)).body(recipeDTO);
     }
 
     @PostMapping("/{recipeId}/ingredients")
     public ResponseEntity<RecipeDTO> addIngredients(@PathVariable("recipeId") UUID recipeId,
-                                                       @RequestBody @Valid List<IngredientDTO> ingredients) {
-        RecipeDTO recipeDTO = recipeService.addIngredients(recipeId, ingredients);
-        return ResponseEntity.ok(recipeDTO);
+                                                       @RequestBody @Valid List<IngredientDTO> ingredients,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        RecipeDTO recipeDTO = recipeService.addIngredients(recipeId, ingredients, RecipeETag.version(ifMatch));
+        return ResponseEntity.ok().eTag(eTag(recipeDTO)).body(recipeDTO);
     }
 
     @PostMapping("/{recipeId}/instructions")
     public ResponseEntity<RecipeDTO> addInstructions(@PathVariable("recipeId") UUID recipeId,
-                                                        @RequestBody @Valid List<InstructionDTO> instructions) {
-        RecipeDTO recipeDTO = recipeService.addInstructions(recipeId, instructions);
-        return ResponseEntity.ok(recipeDTO);
+                                                        @RequestBody @Valid List<InstructionDTO> instructions,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        RecipeDTO recipeDTO = recipeService.addInstructions(recipeId, instructions, RecipeETag.version(ifMatch));
+        return ResponseEntity.ok().eTag(eTag(recipeDTO)).body(recipeDTO);
     }
 
 
+    /**
+     * <p>Answers {@code 304 Not Modified} from the recipe's version alone when the client already holds it, otherwise
+     * writes the cached body of the current version as is, gzipped when the client accepts it</p>
+     */
     @GetMapping("/{recipeId}")
-    public ResponseEntity<RecipeDTO> findRecipeById(@PathVariable("recipeId") UUID recipeId) {
-        RecipeDTO recipeDTO = recipeService.findById(recipeId);
-        return ResponseEntity.ok(recipeDTO);
+    public ResponseEntity<byte[]> findRecipeById(@PathVariable("recipeId") UUID recipeId,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                 WebRequest request) {
+        long version = recipeService.findVersion(recipeId);
+        boolean gzip = responseCache.isGzipEnabled() && StringUtils.containsIgnoreCase(acceptEncoding, GZIP);
+        if (request.checkNotModified(RecipeETag.of(version, gzip))) {
+            return null;
+        }
+
+        SerializedRecipe recipe = responseCache.get(recipeId, version, () -> recipeService.findById(recipeId));
+        // the recipe may have been loaded at a later version than the one just looked up
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(RecipeETag.of(recipe.version(), gzip))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(recipe.gzipped());
+        }
+        return response.body(recipe.json());
     }
 
     @DeleteMapping("/{recipeId}")
-    public ResponseEntity<RecipeDTO> deleteRecipe(@PathVariable("recipeId") UUID recipeId) {
-        recipeService.delete(recipeId);
+    public ResponseEntity<RecipeDTO> deleteRecipe(@PathVariable("recipeId") UUID recipeId,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        recipeService.delete(recipeId, RecipeETag.version(ifMatch));
         return ResponseEntity.noContent().build();
     }
 
     @DeleteMapping("/{recipeId}/ingredients")
     public ResponseEntity<RecipeDTO> deleteIngredients(@PathVariable("recipeId") UUID recipeId,
-                                                       @RequestBody List<UUID> ingredientIds) {
-        recipeService.deleteIngredients(recipeId, ingredientIds);
+                                                       @RequestBody List<UUID> ingredientIds,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        recipeService.deleteIngredients(recipeId, ingredientIds, RecipeETag.version(ifMatch));
         return ResponseEntity.noContent().build();
     }
 
     @DeleteMapping("/{recipeId}/instructions")
     public ResponseEntity<RecipeDTO> deleteInstructions(@PathVariable("recipeId") UUID recipeId,
-                                                        @RequestBody List<UUID> instructionIds) {
-        recipeService.deleteInstructions(recipeId, instructionIds);
+                                                        @RequestBody List<UUID> instructionIds,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        recipeService.deleteInstructions(recipeId, instructionIds, RecipeETag.version(ifMatch));
         return ResponseEntity.noContent().build();
     }
 
@@ -98,18 +188,125 @@ public class RecipeController {
                                                   @RequestParam(value = "excludeIngredients", required = false) List<String> excludeIngredients,
                                                   @RequestParam(value = "instructions", required = false) List<String> instructions,
                                                   @RequestParam(value = "mealCategory", required = false) CategoryDTO categoryDTO,
+                                                  @RequestParam(value = "fuzzy", required = false, defaultValue = "false") boolean fuzzy,
                                                   @RequestParam(value = "pageNumber", required = false, defaultValue = "0") int pageNo,
-                                                  @RequestParam(value = "pageSize", required = false, defaultValue = "100") int pageSize) {
+                                                  @RequestParam(value = "pageSize", required = false, defaultValue = "100") int pageSize,
+                                                  @RequestParam(value = "cursor", required = false) String cursor,
+                                                  @RequestParam(value = "withTotal", required = false, defaultValue = "true") boolean withTotal,
+                                                  WebRequest request) {
 
-        Specification<Recipe> specification = new RecipeSpecificationBuilder()
-                .withRecipeId(recipeId)
+        RecipeSpecificationBuilder builder = filters(recipeId, numberOfServings, withIngredients, excludeIngredients,
+                instructions, categoryDTO, fuzzy);
+        Specification<Recipe> specification = builder.build();
+
+        RecipePage recipePage;
+        // an empty cursor starts keyset pagination from the beginning of the list
+        if (null != cursor) {
+            recipePage = recipeService.findAll(specification, RecipeCursor.decode(cursor), pageSize, false);
+        } else {
+            PageRequest pageRequest = PageRequest.of(pageNo, pageSize);
+            recipePage = withTotal
+                    ? recipeService.findAll(specification, builder.key(), pageRequest, false)
+                    : recipeService.findSlice(specification, pageRequest, false);
+        }
+
+        // the tag only depends on the ids and versions, so a client holding the page is answered before the
+        // ingredients and instructions are read
+        String eTag = RecipeETag.of(recipePage);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(recipeService.withCollections(recipePage));
+    }
+
+    /**
+     * <p>Recipes ranked by relevance to the query, over their names, ingredients and instructions, best first</p>
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<RecipeSearchHitDTO>> searchRecipes(@RequestParam("q") String query,
+                                                                  @RequestParam(value = "servings", required = false) Integer numberOfServings,
+                                                                  @RequestParam(value = "mealCategory", required = false) CategoryDTO categoryDTO,
+                                                                  @RequestParam(value = "limit", required = false, defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new InvalidRequestException(String.format("Search limit must be between 1 and %d",
+                    MAX_SEARCH_LIMIT));
+        }
+        Specification<Recipe> filters = new RecipeSpecificationBuilder()
                 .withServings(numberOfServings)
-                .withExcludedIngredients(excludeIngredients)
-                .withIncludedIngredients(withIngredients)
-                .withInstructions(instructions)
                 .withCategory(categoryDTO)
                 .build();
-        RecipePage recipePage = recipeService.findAll(specification, PageRequest.of(pageNo, pageSize));
-        return ResponseEntity.ok(recipePage);
+        return ResponseEntity.ok(recipeService.search(query, filters, limit));
+    }
+
+    /**
+     * <p>Most popular completions of the prefix among the recipe names or the ingredient descriptions, served from
+     * memory without touching the database</p>
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggest(@RequestParam("prefix") String prefix,
+                                                       @RequestParam(value = "field", required = false, defaultValue = "name") String field) {
+        SuggestionIndex.Field suggestionField = EnumUtils.getEnumIgnoreCase(SuggestionIndex.Field.class, field);
+        if (suggestionField == null) {
+            throw new InvalidRequestException(String.format("Invalid suggestion field: %s", field));
+        }
+        return ResponseEntity.ok(suggestionIndex.suggest(suggestionField, prefix, SUGGESTIONS).stream()
+                .map(entry -> SuggestionDTO.builder()
+                        .value(entry.value())
+                        .weight(entry.weight())
+                        .build())
+                .toList());
+    }
+
+    /**
+     * <p>Every recipe matching the filters of {@link #findRecipes}, one JSON document per line. Recipes are written
+     * and flushed batch by batch as they are read, so neither side holds the whole export.</p>
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportRecipes(@RequestParam(value = "recipeId", required = false) UUID recipeId,
+                                                               @RequestParam(value = "servings", required = false) Integer numberOfServings,
+                                                               @RequestParam(value = "withIngredients", required = false) List<String> withIngredients,
+                                                               @RequestParam(value = "excludeIngredients", required = false) List<String> excludeIngredients,
+                                                               @RequestParam(value = "instructions", required = false) List<String> instructions,
+                                                               @RequestParam(value = "mealCategory", required = false) CategoryDTO categoryDTO,
+                                                               @RequestParam(value = "fuzzy", required = false, defaultValue = "false") boolean fuzzy) {
+        Specification<Recipe> specification = filters(recipeId, numberOfServings, withIngredients, excludeIngredients,
+                instructions, categoryDTO, fuzzy).build();
+
+        // flushing once per batch rather than once per recipe
+        ObjectWriter writer = objectMapper.writerFor(RecipeDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                recipeService.export(specification, recipes -> {
+                    try {
+                        for (RecipeDTO recipe : recipes) {
+                            writer.writeValue(generator, recipe);
+                            generator.writeRaw('\n');
+                        }
+                        generator.flush();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private RecipeSpecificationBuilder filters(UUID recipeId, Integer numberOfServings, List<String> withIngredients,
+                                               List<String> excludeIngredients, List<String> instructions,
+                                               CategoryDTO categoryDTO, boolean fuzzy) {
+        return new RecipeSpecificationBuilder(ingredientIndex, instructionIndex, bitmapIndex,
+                RecipeSpecificationBuilder.FilterMode.EXISTS)
+                .withRecipeId(recipeId)
+                .withServings(numberOfServings)
+                .withExcludedIngredients(excludeIngredients, fuzzy)
+                .withIncludedIngredients(withIngredients, fuzzy)
+                .withInstructions(instructions)
+                .withCategory(categoryDTO);
+    }
+
+    private static String eTag(RecipeDTO recipe) {
+        return RecipeETag.of(recipe.getVersion(), false);
     }
 }
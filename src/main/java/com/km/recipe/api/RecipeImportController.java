@@ -0,0 +1,35 @@
+package com.km.recipe.api;
+
+import com.km.recipe.dto.RecipeImportDTO;
+import com.km.recipe.imports.RecipeImporter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/recipes/imports")
+@RequiredArgsConstructor
+public class RecipeImportController {
+
+    private final RecipeImporter importer;
+
+    /**
+     * <p>Imports the newline delimited recipes of the body as it is received. Sending the same body again under the
+     * same id resumes an interrupted import after its last committed record.</p>
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<RecipeImportDTO> importRecipes(@RequestParam(value = "importId", required = false) String importId,
+                                                         InputStream body) {
+        return ResponseEntity.ok(importer.importRecipes(importId == null ? UUID.randomUUID().toString() : importId,
+                body));
+    }
+
+    @GetMapping("/{importId}")
+    public ResponseEntity<RecipeImportDTO> findImport(@PathVariable("importId") String importId) {
+        return ResponseEntity.ok(importer.findImport(importId));
+    }
+}
@@ -0,0 +1,71 @@
+package com.km.recipe.cache;
+
+import com.km.recipe.domain.Ingredient;
+import com.km.recipe.domain.Instruction;
+import com.km.recipe.domain.Recipe;
+import com.km.recipe.domain.Recipe_;
+import com.km.recipe.domain.repository.RecipeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * <p>Evicts the second-level cache entries of recipes written by bulk statements, which Hibernate does not
+ * track. Entries are evicted right away, and again once the transaction completes, so that a concurrent read
+ * cannot leave the pre-commit state cached.</p>
+ */
+@Component
+public class RecipeCacheEvictor {
+
+    static final String INGREDIENTS = Recipe.class.getName() + "." + Recipe_.INGREDIENTS;
+    static final String INSTRUCTIONS = Recipe.class.getName() + "." + Recipe_.INSTRUCTIONS;
+
+    private final org.hibernate.Cache cache;
+
+    public RecipeCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    public void evictIngredients(UUID recipeId, Collection<UUID> ingredientIds) {
+        evict(recipeId, Ingredient.class, ingredientIds);
+    }
+
+    public void evictInstructions(UUID recipeId, Collection<UUID> instructionIds) {
+        evict(recipeId, Instruction.class, instructionIds);
+    }
+
+    /**
+     * <p>Cached name lookups may tell that a name inserted by bulk statements is still free</p>
+     */
+    public void evictNameQueries() {
+        evict(() -> cache.evictQueryRegion(RecipeRepository.NAME_QUERY_REGION));
+    }
+
+    private void evict(UUID recipeId, Class<?> childType, Collection<UUID> childIds) {
+        List<UUID> ids = List.copyOf(childIds);
+        evict(() -> {
+            cache.evictEntityData(Recipe.class, recipeId);
+            cache.evictCollectionData(INGREDIENTS, recipeId);
+            cache.evictCollectionData(INSTRUCTIONS, recipeId);
+            ids.forEach(id -> cache.evictEntityData(childType, id));
+        });
+    }
+
+    private static void evict(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.km.recipe.cache;
+
+import com.km.recipe.domain.RecipeChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>Short-lived cache of the number of recipes matching a filter, so that list pages asking for totals
+ * do not pay for a count query on every call. Any committed recipe change clears it.</p>
+ */
+@Component
+public class RecipeCountCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Clock clock;
+
+    @Autowired
+    public RecipeCountCache(@Value("${recipe.count-cache.ttl:5s}") Duration ttl,
+                            @Value("${recipe.count-cache.max-entries:1000}") int maxEntries) {
+        this(ttl, maxEntries, Clock.systemUTC());
+    }
+
+    RecipeCountCache(Duration ttl, int maxEntries, Clock clock) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    public long get(String filterKey, LongSupplier count) {
+        long now = clock.millis();
+        Entry entry = entries.get(filterKey);
+        if (entry != null && entry.expiresAt() > now) {
+            return entry.count();
+        }
+
+        long value = count.getAsLong();
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(e -> e.expiresAt() <= now);
+        }
+        if (entries.size() < maxEntries) {
+            entries.put(filterKey, new Entry(value, now + ttl.toMillis()));
+        }
+        return value;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        entries.clear();
+    }
+
+    private record Entry(long count, long expiresAt) {
+    }
+}
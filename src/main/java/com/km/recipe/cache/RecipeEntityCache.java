@@ -0,0 +1,31 @@
+package com.km.recipe.cache;
+
+import com.km.recipe.domain.Recipe;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * <p>Tells which recipes the second-level cache holds, so that callers can load those through the entity for free
+ * and read the others in bulk</p>
+ */
+@Component
+public class RecipeEntityCache {
+
+    private final org.hibernate.Cache cache;
+
+    public RecipeEntityCache(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    /**
+     * <p>Whether the recipe and both its collections are cached, loading it then costing no statement</p>
+     */
+    public boolean contains(UUID recipeId) {
+        return cache.containsEntity(Recipe.class, recipeId)
+                && cache.containsCollection(RecipeCacheEvictor.INGREDIENTS, recipeId)
+                && cache.containsCollection(RecipeCacheEvictor.INSTRUCTIONS, recipeId);
+    }
+}
@@ -0,0 +1,62 @@
+package com.km.recipe.cache;
+
+import com.km.recipe.domain.RecipeChangedEvent;
+import com.km.recipe.dto.RecipeDTO;
+import com.km.recipe.dto.SingleFlightStatisticsDTO;
+import com.km.recipe.dto.page.RecipePage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * <p>Coalesces the concurrent reads of a same recipe, or of a same page of a same filter, into a single database
+ * load. Reads made within a transaction are never shared, since they must see that transaction's writes. A committed
+ * recipe change detaches the loads in flight, so that callers arriving after it do not get the state before it.</p>
+ */
+@Component
+public class RecipeLoadCoalescer {
+
+    private final SingleFlight<UUID, RecipeDTO> recipes = new SingleFlight<>("recipe");
+    private final SingleFlight<PageKey, RecipePage> pages = new SingleFlight<>("recipe-page");
+
+    public RecipeDTO findById(UUID recipeId, Supplier<RecipeDTO> loader) {
+        return execute(recipes, recipeId, loader);
+    }
+
+    public RecipePage findAll(String filterKey, Pageable pageable, Supplier<RecipePage> loader) {
+        return execute(pages, new PageKey(filterKey, pageable), loader);
+    }
+
+    public List<SingleFlightStatisticsDTO> statistics() {
+        return List.of(toDto(recipes), toDto(pages));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        recipes.forget(event.recipeId());
+        pages.forgetAll();
+    }
+
+    private static <K, V> V execute(SingleFlight<K, V> flight, K key, Supplier<V> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+        return flight.execute(key, loader);
+    }
+
+    private static SingleFlightStatisticsDTO toDto(SingleFlight<?, ?> flight) {
+        return SingleFlightStatisticsDTO.builder()
+                .name(flight.getName())
+                .executedCount(flight.getExecutedCount())
+                .coalescedCount(flight.getCoalescedCount())
+                .build();
+    }
+
+    private record PageKey(String filterKey, Pageable pageable) {
+    }
+}
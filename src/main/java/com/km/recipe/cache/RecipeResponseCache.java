@@ -0,0 +1,96 @@
+package com.km.recipe.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.km.recipe.domain.RecipeChangedEvent;
+import com.km.recipe.dto.RecipeDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>Serialized {@code GET /recipes/{id}} bodies keyed by recipe id and version, so that serving an unchanged recipe
+ * costs neither mapping nor serialization. The cache is bounded by the total size of the bodies it holds.</p>
+ */
+@Component
+public class RecipeResponseCache {
+
+    private final Cache<UUID, SerializedRecipe> entries;
+    private final ObjectMapper objectMapper;
+    private final boolean gzip;
+
+    public RecipeResponseCache(ObjectMapper objectMapper,
+                               @Value("${recipe.response-cache.max-size:64MB}") DataSize maxSize,
+                               @Value("${recipe.response-cache.gzip:true}") boolean gzip) {
+        this.objectMapper = objectMapper;
+        this.gzip = gzip;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<UUID, SerializedRecipe>weigher((id, recipe) -> recipe.size())
+                .build();
+    }
+
+    public boolean isGzipEnabled() {
+        return gzip;
+    }
+
+    /**
+     * <p>Body of the recipe at the given version, loading and serializing it only when that version is not cached.
+     * A recipe loaded at a later version than asked for is returned and cached as such.</p>
+     */
+    public SerializedRecipe get(UUID recipeId, long version, Supplier<RecipeDTO> loader) {
+        SerializedRecipe cached = entries.getIfPresent(recipeId);
+        if (cached != null && cached.version() == version) {
+            return cached;
+        }
+
+        SerializedRecipe serialized = serialize(loader.get());
+        entries.asMap().merge(recipeId, serialized,
+                (previous, current) -> previous.version() > current.version() ? previous : current);
+        return serialized;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        entries.invalidate(event.recipeId());
+    }
+
+    private SerializedRecipe serialize(RecipeDTO recipe) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(recipe);
+            return new SerializedRecipe(recipe.getVersion(), json, gzip ? gzip(json) : null);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(String.format("Cannot serialize recipe with id: %s", recipe.getId()), ex);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * <p>JSON body of a recipe version, along with its gzipped form when compression is enabled</p>
+     */
+    public record SerializedRecipe(long version, byte[] json, byte[] gzipped) {
+
+        int size() {
+            return json.length + (gzipped == null ? 0 : gzipped.length);
+        }
+    }
+}
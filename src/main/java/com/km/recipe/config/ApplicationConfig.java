@@ -4,7 +4,11 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.km.recipe.domain.IdStrategy;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
+import org.springframework.beans.factory.annotation.Value;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -24,4 +28,27 @@ public class ApplicationConfig {
 
         return objectMapper;
     }
+
+    @Bean
+    IdStrategy idStrategy(@Value("${recipe.id.strategy:random}") IdStrategy idStrategy) {
+        return idStrategy;
+    }
+
+    /**
+     * <p>Hands the id strategy over to Hibernate, which generates the ids of the entities it inserts</p>
+     */
+    @Bean
+    HibernatePropertiesCustomizer idStrategyCustomizer(IdStrategy idStrategy) {
+        return properties -> properties.put(IdStrategy.SETTING, idStrategy);
+    }
+
+    /**
+     * <p>Has Hibernate collect the second-level cache statistics served at {@code /cache/statistics}, unless
+     * {@code recipe.cache.statistics-enabled} is off. An explicit {@code hibernate.generate_statistics} wins.</p>
+     */
+    @Bean
+    HibernatePropertiesCustomizer statisticsCustomizer(
+            @Value("${recipe.cache.statistics-enabled:true}") boolean statisticsEnabled) {
+        return properties -> properties.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, statisticsEnabled);
+    }
 }
@@ -0,0 +1,66 @@
+package com.km.recipe.config;
+
+import com.km.recipe.datasource.ReadWriteRoutingDataSource;
+import com.km.recipe.datasource.ReadYourWrites;
+import com.km.recipe.datasource.ReplicaLag;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * <p>Splits reads from writes once a replica is configured with {@code recipe.datasource.replica.jdbc-url}: the
+ * primary pool keeps the {@code spring.datasource} settings, the replica pool takes any Hikari setting under
+ * {@code recipe.datasource.replica}, and read-only transactions are routed to the replica. The replica lag is
+ * measured every {@code recipe.datasource.replica-heartbeat}.</p>
+ */
+@Configuration
+@ConditionalOnProperty("recipe.datasource.replica.jdbc-url")
+public class ReadWriteDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("recipe.datasource.replica")
+    HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class).build();
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean(initMethod = "start")
+    ReplicaLag replicaLag(@Qualifier("primaryDataSource") DataSource primary,
+                          @Qualifier("replicaDataSource") DataSource replica,
+                          @Value("${recipe.datasource.replica-heartbeat:100ms}") Duration heartbeat) {
+        return new ReplicaLag(primary, replica, heartbeat);
+    }
+
+    @Bean
+    ReadYourWrites readYourWrites() {
+        return new ReadYourWrites();
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                          @Qualifier("replicaDataSource") DataSource replica,
+                          ReplicaLag replicaLag) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, replicaLag);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
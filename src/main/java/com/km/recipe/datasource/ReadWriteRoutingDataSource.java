@@ -0,0 +1,37 @@
+package com.km.recipe.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * <p>Hands out replica connections to read-only transactions once the replica holds the last write of the caller
+ * and of this instance, and primary connections to everything else. The route is chosen when the connection is
+ * acquired, so this data source has to be wrapped in a lazy connection proxy for the transaction's read-only flag to
+ * be known by then.</p>
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaLag replicaLag;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLag replicaLag) {
+        this.replicaLag = replicaLag;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Route determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && replicaLag.hasReplicated(ReadYourWrites.writtenAt())
+                ? Route.REPLICA
+                : Route.PRIMARY;
+    }
+}
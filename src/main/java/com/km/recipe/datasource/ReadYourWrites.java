@@ -0,0 +1,87 @@
+package com.km.recipe.datasource;
+
+import com.km.recipe.domain.RecipeChangedEvent;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Clock;
+
+/**
+ * <p>Keeps each caller on the primary until the replica holds the caller's last write. The time of that write
+ * travels with the caller rather than staying on the instance that served it: it is set in the
+ * {@value #WRITTEN_AT} header of every response to a write, and the caller sends it back on its next requests, to
+ * whichever instance serves them.</p>
+ */
+public class ReadYourWrites extends OncePerRequestFilter {
+
+    public static final String WRITTEN_AT = "Recipe-Written-At";
+
+    private static final ThreadLocal<Caller> CALLER = new ThreadLocal<>();
+
+    private final Clock clock;
+
+    public ReadYourWrites() {
+        this(Clock.systemUTC());
+    }
+
+    ReadYourWrites(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * <p>Time of the last write of the caller being served, zero for callers which wrote nothing</p>
+     */
+    public static long writtenAt() {
+        Caller caller = CALLER.get();
+        return caller == null ? 0 : caller.writtenAt;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CALLER.set(new Caller(parse(request.getHeader(WRITTEN_AT)), response));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            CALLER.remove();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        Caller caller = CALLER.get();
+        if (caller != null) {
+            caller.writtenAt = clock.millis();
+            if (!caller.response.isCommitted()) {
+                caller.response.setHeader(WRITTEN_AT, Long.toString(caller.writtenAt));
+            }
+        }
+    }
+
+    private static long parse(String writtenAt) {
+        if (writtenAt == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(writtenAt.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static final class Caller {
+
+        private final HttpServletResponse response;
+        private long writtenAt;
+
+        private Caller(long writtenAt, HttpServletResponse response) {
+            this.writtenAt = writtenAt;
+            this.response = response;
+        }
+    }
+}
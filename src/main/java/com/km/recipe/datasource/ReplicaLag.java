@@ -0,0 +1,97 @@
+package com.km.recipe.datasource;
+
+import com.km.recipe.domain.RecipeChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures how far the replica is behind the primary with a heartbeat: the time is written to the
+ * {@code replica_heartbeat} row of the primary at a fixed rate and read back from the replica, so the latest beat
+ * the replica holds is the time up to which every write committed on the primary has reached it. Times are taken
+ * from the clocks of the instances, which are assumed to be synchronized.</p>
+ *
+ * <p>A write is replicated once the replica holds a beat taken after it. Besides the caller's own last write, this
+ * instance's last write has to be replicated too: its caches and indexes reload the recipes it writes after commit,
+ * and would be left holding their previous state if read from the replica. Readers on this instance are thus sent to
+ * the primary after each of its writes, but only for as long as the replica is measured to lag.</p>
+ */
+@Slf4j
+public class ReplicaLag implements AutoCloseable {
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration interval;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // no beat read from the replica yet, so that nothing is taken as replicated
+    private volatile long replicatedUntil = -1;
+    private volatile long lastWrite;
+
+    public ReplicaLag(DataSource primary, DataSource replica, Duration interval) {
+        this(primary, replica, interval, Clock.systemUTC());
+    }
+
+    ReplicaLag(DataSource primary, DataSource replica, Duration interval, Clock clock) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.interval = interval;
+        this.clock = clock;
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::beat, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * <p>Whether the replica holds both the given write, if any, and the last write of this instance</p>
+     */
+    public boolean hasReplicated(long writtenAt) {
+        return replicatedUntil >= Math.max(writtenAt, lastWrite);
+    }
+
+    /**
+     * <p>How far behind the primary the replica was at the last beat, unknown until the replica was first read</p>
+     */
+    public Duration lag() {
+        return replicatedUntil < 0 ? null : Duration.ofMillis(Math.max(0, clock.millis() - replicatedUntil));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        lastWrite = clock.millis();
+    }
+
+    /**
+     * <p>Writes a beat to the primary and reads the latest one the replica holds. While either fails, the replica
+     * keeps the beat it was last known to hold.</p>
+     */
+    void beat() {
+        try {
+            primary.update("UPDATE replica_heartbeat SET beat = ? WHERE id = 1", clock.millis());
+            Long beat = replica.queryForObject("SELECT beat FROM replica_heartbeat WHERE id = 1", Long.class);
+            if (beat != null && beat > replicatedUntil) {
+                replicatedUntil = beat;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not measure the replica lag: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,17 @@
+package com.km.recipe.domain;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Generates the annotated id with the configured {@link IdStrategy}</p>
+ */
+@IdGeneratorType(ConfiguredUuidGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface ConfiguredUuid {
+}
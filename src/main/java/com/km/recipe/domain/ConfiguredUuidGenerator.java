@@ -0,0 +1,38 @@
+package com.km.recipe.domain;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+
+/**
+ * <p>Generator of the {@link ConfiguredUuid} ids, reading its strategy from the {@link IdStrategy#SETTING} Hibernate
+ * setting and falling back to random UUIDs</p>
+ */
+public class ConfiguredUuidGenerator implements BeforeExecutionGenerator {
+
+    private final IdStrategy strategy;
+
+    public ConfiguredUuidGenerator(ConfiguredUuid config, Member member, CustomIdGeneratorCreationContext context) {
+        this.strategy = context.getServiceRegistry().getService(ConfigurationService.class)
+                .getSetting(IdStrategy.SETTING, value -> value instanceof IdStrategy idStrategy
+                        ? idStrategy
+                        : IdStrategy.valueOf(value.toString().trim().toUpperCase().replace('-', '_')),
+                        IdStrategy.RANDOM);
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EnumSet.of(EventType.INSERT);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return strategy.next();
+    }
+}
@@ -0,0 +1,40 @@
+package com.km.recipe.domain;
+
+import com.km.recipe.util.UuidV7;
+
+import java.util.UUID;
+
+/**
+ * <p>How the ids of new entities are generated, set with {@code recipe.id.strategy}. Both strategies produce plain
+ * {@link UUID}s, so switching from one to the other leaves the existing ids and the API untouched.</p>
+ */
+public enum IdStrategy {
+
+    /**
+     * <p>Random version 4 UUIDs, which spread the inserts over the whole of the primary key indexes</p>
+     */
+    RANDOM {
+        @Override
+        public UUID next() {
+            return UUID.randomUUID();
+        }
+    },
+
+    /**
+     * <p>Time-ordered version 7 UUIDs, so that consecutive inserts land on the last pages of the primary key
+     * indexes</p>
+     */
+    TIME_ORDERED {
+        @Override
+        public UUID next() {
+            return UuidV7.next();
+        }
+    };
+
+    /**
+     * <p>Hibernate setting through which the configured strategy reaches {@link ConfiguredUuidGenerator}</p>
+     */
+    public static final String SETTING = "recipe.id.strategy";
+
+    public abstract UUID next();
+}
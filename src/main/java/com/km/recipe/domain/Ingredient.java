@@ -3,6 +3,8 @@ package com.km.recipe.domain;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.StringJoiner;
 import java.util.UUID;
@@ -11,6 +13,9 @@ import java.util.UUID;
 @Table(name = "recipe_ingredients", uniqueConstraints = {
         @UniqueConstraint(name = "uq_ingredient_recipe_id_description", columnNames = {"recipe_id", "description"})
 })
+// the converted description differs from the in-memory one until reloaded, so the cache is only ever filled by
+// loads and written entries are evicted instead of being put
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "ingredient")
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @SuperBuilder
 @Getter
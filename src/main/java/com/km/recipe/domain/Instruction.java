@@ -3,6 +3,8 @@ package com.km.recipe.domain;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.validation.constraints.Min;
 import java.util.StringJoiner;
@@ -13,6 +15,9 @@ import java.util.UUID;
         @UniqueConstraint(name = "uq_instruction_recipe_id_step", columnNames = {"recipe_id", "step"}),
         @UniqueConstraint(name = "uq_instruction_recipe_id_description", columnNames = {"recipe_id", "description"})
 })
+// the converted description differs from the in-memory one until reloaded, so the cache is only ever filled by
+// loads and written entries are evicted instead of being put
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "instruction")
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @SuperBuilder
 @Getter
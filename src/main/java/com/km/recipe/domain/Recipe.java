@@ -8,11 +8,19 @@ import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.*;
 
 @Entity
-@Table(name = "recipe")
+@Table(name = "recipe", indexes = {
+        @Index(name = "idx_recipe_created_date_id", columnList = "created_date, id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = Recipe.NAME_KEY_CONSTRAINT, columnNames = "name_key")
+})
+@EntityListeners(RecipeEntityListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "recipe")
 @SuperBuilder
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
@@ -20,11 +28,25 @@ import java.util.*;
 @Setter
 public class Recipe extends AbstractAuditableEntity {
 
-    @Column(nullable = false, unique = true)
+    /**
+     * <p>Unique constraint on the {@link #nameKey(String) name key}, which tells a name conflict apart from any
+     * other integrity violation</p>
+     */
+    public static final String NAME_KEY_CONSTRAINT = "uq_recipe_name_key";
+
+    @Column(nullable = false)
     @EqualsAndHashCode.Include
     @NotBlank
     private String name;
 
+    /**
+     * <p>{@link #nameKey(String) Key} of the name, recomputed whenever the recipe is written. Names are unique
+     * by key and looked up by key.</p>
+     */
+    @Column(name = "name_key", nullable = false)
+    @Setter(AccessLevel.NONE)
+    private String nameKey;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "category", nullable = false)
     @NotNull
@@ -51,13 +73,15 @@ public class Recipe extends AbstractAuditableEntity {
     private Integer cookingTime;
 
     @OneToMany(orphanRemoval = true, cascade = CascadeType.ALL, fetch = FetchType.EAGER)
-    @JoinColumn(nullable = false, name = "recipe_id", referencedColumnName = "id")
+    @JoinColumn(nullable = false, updatable = false, name = "recipe_id", referencedColumnName = "id")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "recipe-instructions")
     @Builder.Default
     @NotEmpty
     private SortedSet<Instruction> instructions = new TreeSet<>();
 
     @OneToMany(orphanRemoval = true, cascade = CascadeType.ALL, fetch = FetchType.EAGER)
-    @JoinColumn(nullable = false, name = "recipe_id", referencedColumnName = "id")
+    @JoinColumn(nullable = false, updatable = false, name = "recipe_id", referencedColumnName = "id")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "recipe-ingredients")
     @Builder.Default
     @NotEmpty
     private SortedSet<Ingredient> ingredients = new TreeSet<>();
@@ -65,7 +89,24 @@ public class Recipe extends AbstractAuditableEntity {
     @PrePersist
     @PreUpdate
     public void prePersist() {
-        this.name = StringUtils.capitalize(StringUtils.lowerCase(this.name));
+        this.name = normalizeName(this.name);
+        this.nameKey = nameKey(this.name);
+    }
+
+    /**
+     * <p>Form in which recipe names are stored, so that names differing only by case are stored alike</p>
+     */
+    public static String normalizeName(String name) {
+        return StringUtils.capitalize(StringUtils.lowerCase(name));
+    }
+
+    /**
+     * <p>Key under which names are compared: case-folded, trimmed and with inner whitespace collapsed to a single
+     * space, so that {@code "Tomato  soup"} and {@code " TOMATO SOUP"} are one and the same name</p>
+     */
+    public static String nameKey(String name) {
+        String normalized = StringUtils.normalizeSpace(name);
+        return normalized == null ? null : normalized.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
     }
 
     @Override
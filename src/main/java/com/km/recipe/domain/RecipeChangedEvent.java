@@ -0,0 +1,16 @@
+package com.km.recipe.domain;
+
+import java.util.UUID;
+
+/**
+ * <p>Published for every persisted, updated or removed {@link Recipe}, whether written through the entity or by bulk
+ * statements. Listeners interested in committed state only should subscribe with
+ * {@code @TransactionalEventListener}.</p>
+ */
+public record RecipeChangedEvent(UUID recipeId, Type type) {
+
+    public enum Type {
+        SAVED,
+        REMOVED
+    }
+}
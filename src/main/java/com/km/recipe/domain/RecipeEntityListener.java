@@ -0,0 +1,26 @@
+package com.km.recipe.domain;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class RecipeEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Recipe recipe) {
+        eventPublisher.publishEvent(new RecipeChangedEvent(recipe.getId(), RecipeChangedEvent.Type.SAVED));
+    }
+
+    @PostRemove
+    public void onRemove(Recipe recipe) {
+        eventPublisher.publishEvent(new RecipeChangedEvent(recipe.getId(), RecipeChangedEvent.Type.REMOVED));
+    }
+}
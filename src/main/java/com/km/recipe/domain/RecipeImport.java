@@ -0,0 +1,87 @@
+package com.km.recipe.domain;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * <p>Checkpoint of a recipe import, written in the same transaction as every chunk of recipes it covers. The offsets
+ * therefore always point right after the last committed record, which is where an interrupted import resumes.</p>
+ */
+@Entity
+@Table(name = "recipe_import")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Getter
+@Setter
+public class RecipeImport {
+
+    @Id
+    @Column(name = "import_id")
+    private String importId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    /**
+     * <p>Number of records read up to the checkpoint, whether they were created, conflicting or rejected</p>
+     */
+    @Column(name = "record_offset", nullable = false)
+    private long recordOffset;
+
+    /**
+     * <p>Position in the source right after the last record of the checkpoint</p>
+     */
+    @Column(name = "byte_offset", nullable = false)
+    private long byteOffset;
+
+    @Column(nullable = false)
+    private long created;
+
+    @Column(nullable = false)
+    private long conflicts;
+
+    @Column(nullable = false)
+    private long rejected;
+
+    /**
+     * <p>Record offset at which the current run started, the rate being measured over the current run only</p>
+     */
+    @Column(name = "run_offset", nullable = false)
+    private long runOffset;
+
+    @Column(name = "run_started_date", nullable = false)
+    private Instant runStartedDate;
+
+    @Column(name = "updated_date", nullable = false)
+    private Instant updatedDate;
+
+    @Column(length = 1000)
+    private String failure;
+
+    @Version
+    @Column
+    private Long version;
+
+    public RecipeImport(String importId) {
+        this.importId = importId;
+        this.status = Status.RUNNING;
+        this.runStartedDate = Instant.now();
+        this.updatedDate = this.runStartedDate;
+    }
+
+    public double getRowsPerSecond() {
+        long millis = updatedDate.toEpochMilli() - runStartedDate.toEpochMilli();
+        return millis == 0 ? 0 : (recordOffset - runOffset) * 1000d / millis;
+    }
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
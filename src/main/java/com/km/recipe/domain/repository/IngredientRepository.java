@@ -1,12 +1,17 @@
 package com.km.recipe.domain.repository;
 
 import com.km.recipe.domain.Ingredient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -15,8 +20,33 @@ public interface IngredientRepository extends JpaRepository<Ingredient, UUID> {
 
     Set<Ingredient> findAllByRecipeId(UUID recipeId);
 
+    /**
+     * <p>Descriptions of the recipes' ingredients, read without hydrating the entities</p>
+     */
+    @Query(value = "SELECT new com.km.recipe.domain.repository.IngredientRepository$IngredientDescription(" +
+            "i.recipeId, i.id, i.description) FROM Ingredient i")
+    List<IngredientDescription> findAllDescriptions();
+
+    @Query(value = "SELECT new com.km.recipe.domain.repository.IngredientRepository$IngredientDescription(" +
+            "i.recipeId, i.id, i.description) FROM Ingredient i WHERE i.recipeId IN (:recipeIds)")
+    List<IngredientDescription> findDescriptionsByRecipeIdIn(@Param("recipeIds") Collection<UUID> recipeIds);
+
     @Query(value = "SELECT i FROM Ingredient i WHERE i.recipeId = :recipeId AND " +
             "i.id IN (:ids)")
     Set<Ingredient> findAllByRecipeIdAndIdsIn(@Param("recipeId") UUID recipeId,
                                               @Param("ids") Collection<UUID> ids);
+
+    /**
+     * <p>Number of the recipe's ingredients left once the given ones are removed</p>
+     */
+    @Query(value = "SELECT COUNT(i) FROM Ingredient i WHERE i.recipeId = :recipeId AND i.id NOT IN (:ids)")
+    long countByRecipeIdAndIdNotIn(@Param("recipeId") UUID recipeId, @Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM recipe_ingredients WHERE recipe_id = :recipeId AND id IN (:ids)", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = RecipeRepository.BULK_QUERY_SPACE))
+    int deleteAllByRecipeIdAndIdsIn(@Param("recipeId") UUID recipeId, @Param("ids") Collection<UUID> ids);
+
+    record IngredientDescription(UUID recipeId, UUID id, String description) {
+    }
 }
@@ -0,0 +1,47 @@
+package com.km.recipe.domain.repository;
+
+import com.km.recipe.domain.Instruction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@Repository
+public interface InstructionRepository extends JpaRepository<Instruction, UUID> {
+
+    @Query(value = "SELECT new com.km.recipe.domain.repository.InstructionRepository$InstructionDescription(" +
+            "i.recipeId, i.id, i.description, i.detailedDescription) FROM Instruction i")
+    List<InstructionDescription> findAllDescriptions();
+
+    @Query(value = "SELECT new com.km.recipe.domain.repository.InstructionRepository$InstructionDescription(" +
+            "i.recipeId, i.id, i.description, i.detailedDescription) FROM Instruction i WHERE i.recipeId IN (:recipeIds)")
+    List<InstructionDescription> findDescriptionsByRecipeIdIn(@Param("recipeIds") Collection<UUID> recipeIds);
+
+    @Query(value = "SELECT i FROM Instruction i WHERE i.recipeId = :recipeId AND " +
+            "i.id IN (:ids)")
+    Set<Instruction> findAllByRecipeIdAndIdsIn(@Param("recipeId") UUID recipeId,
+                                               @Param("ids") Collection<UUID> ids);
+
+    /**
+     * <p>Number of the recipe's instructions left once the given ones are removed</p>
+     */
+    @Query(value = "SELECT COUNT(i) FROM Instruction i WHERE i.recipeId = :recipeId AND i.id NOT IN (:ids)")
+    long countByRecipeIdAndIdNotIn(@Param("recipeId") UUID recipeId, @Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM recipe_instructions WHERE recipe_id = :recipeId AND id IN (:ids)", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = RecipeRepository.BULK_QUERY_SPACE))
+    int deleteAllByRecipeIdAndIdsIn(@Param("recipeId") UUID recipeId, @Param("ids") Collection<UUID> ids);
+
+    record InstructionDescription(UUID recipeId, UUID id, String description, String detailedDescription) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.km.recipe.domain.repository;
+
+import com.km.recipe.domain.IdStrategy;
+import com.km.recipe.domain.Ingredient;
+import com.km.recipe.domain.Instruction;
+import com.km.recipe.domain.NameConverter;
+import com.km.recipe.domain.Recipe;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Inserts new recipes along with their ingredients and instructions through plain JDBC batches of the configured
+ * size, one statement per table and batch. Rows are written the way the entity mapping would write them, but
+ * Hibernate is not involved: callers publish the recipe events and invalidate the cached name lookups.</p>
+ */
+@Repository
+public class RecipeBatchRepository {
+
+    private static final String INSERT_RECIPE = "INSERT INTO recipe (id, name, name_key, category, " +
+            "number_of_servings, preparation_time, cooking_time, created_date, updated_date, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_INGREDIENT = "INSERT INTO recipe_ingredients (id, recipe_id, description) " +
+            "VALUES (?, ?, ?)";
+    private static final String INSERT_INSTRUCTION = "INSERT INTO recipe_instructions (id, recipe_id, description, " +
+            "detail_description, step) VALUES (?, ?, ?, ?, ?)";
+
+    private static final NameConverter NAME_CONVERTER = new NameConverter();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final IdStrategy idStrategy;
+
+    public RecipeBatchRepository(JdbcTemplate jdbcTemplate, @Value("${recipe.batch.size:500}") int batchSize,
+                                 IdStrategy idStrategy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.idStrategy = idStrategy;
+    }
+
+    /**
+     * <p>Assigns the ids, timestamps and initial version of the recipes and their children, then inserts them</p>
+     */
+    public void insertAll(List<Recipe> recipes) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Ingredient> ingredients = new ArrayList<>();
+        List<Instruction> instructions = new ArrayList<>();
+        for (Recipe recipe : recipes) {
+            recipe.setId(idStrategy.next());
+            recipe.setCreatedDate(now.toInstant());
+            recipe.setUpdatedDate(now.toInstant());
+            recipe.setVersion(0L);
+            recipe.prePersist();
+            recipe.getIngredients().forEach(ingredient -> {
+                ingredient.setId(idStrategy.next());
+                ingredient.setRecipeId(recipe.getId());
+                ingredients.add(ingredient);
+            });
+            recipe.getInstructions().forEach(instruction -> {
+                instruction.setId(idStrategy.next());
+                instruction.setRecipeId(recipe.getId());
+                instructions.add(instruction);
+            });
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_RECIPE, recipes, batchSize, (ps, recipe) -> {
+            ps.setObject(1, recipe.getId());
+            ps.setString(2, recipe.getName());
+            ps.setString(3, recipe.getNameKey());
+            ps.setString(4, recipe.getCategoryType().name());
+            ps.setInt(5, recipe.getServings());
+            ps.setInt(6, recipe.getPreparationTime());
+            ps.setInt(7, recipe.getCookingTime());
+            ps.setTimestamp(8, now);
+            ps.setTimestamp(9, now);
+            ps.setLong(10, recipe.getVersion());
+        });
+        jdbcTemplate.batchUpdate(INSERT_INGREDIENT, ingredients, batchSize, (ps, ingredient) -> {
+            ps.setObject(1, ingredient.getId());
+            ps.setObject(2, ingredient.getRecipeId());
+            ps.setString(3, NAME_CONVERTER.convertToDatabaseColumn(ingredient.getDescription()));
+        });
+        jdbcTemplate.batchUpdate(INSERT_INSTRUCTION, instructions, batchSize, (ps, instruction) -> {
+            ps.setObject(1, instruction.getId());
+            ps.setObject(2, instruction.getRecipeId());
+            ps.setString(3, NAME_CONVERTER.convertToDatabaseColumn(instruction.getDescription()));
+            ps.setString(4, instruction.getDetailedDescription());
+            ps.setInt(5, instruction.getStep());
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package com.km.recipe.domain.repository;
+
+import com.km.recipe.domain.RecipeImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface RecipeImportRepository extends JpaRepository<RecipeImport, String> {
+
+    /**
+     * <p>Leaves the offsets at the last committed chunk, from where the import resumes</p>
+     */
+    @Modifying
+    @Query("UPDATE RecipeImport i SET i.status = com.km.recipe.domain.RecipeImport$Status.FAILED, " +
+            "i.failure = :failure, i.updatedDate = :updatedDate, i.version = i.version + 1 " +
+            "WHERE i.importId = :importId")
+    void markFailed(@Param("importId") String importId, @Param("failure") String failure,
+                    @Param("updatedDate") Instant updatedDate);
+}
@@ -0,0 +1,272 @@
+package com.km.recipe.domain.repository;
+
+import com.km.recipe.domain.AbstractAuditableEntity_;
+import com.km.recipe.domain.AbstractEntity_;
+import com.km.recipe.domain.CategoryType;
+import com.km.recipe.domain.Recipe;
+import com.km.recipe.domain.Recipe_;
+import com.km.recipe.dto.CategoryDTO;
+import com.km.recipe.dto.IngredientDTO;
+import com.km.recipe.dto.InstructionDTO;
+import com.km.recipe.dto.RecipeDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+/**
+ * <p>Read model of the recipes. Rows are read straight into DTOs, so nothing is hydrated into or tracked by
+ * the persistence context. Whatever the number of recipes, a read costs three statements: the recipes,
+ * their ingredients and their instructions.</p>
+ */
+@Repository
+public class RecipeReadRepository {
+
+    private static final String ID = "id";
+    private static final String RECIPE_ID = "recipeId";
+    private static final String NAME = "name";
+    private static final String SERVINGS = "servings";
+    private static final String PREPARATION_TIME = "preparationTime";
+    private static final String COOKING_TIME = "cookingTime";
+    private static final String CATEGORY = "category";
+    private static final String CREATED_DATE = "createdDate";
+    private static final String VERSION = "version";
+    private static final String DESCRIPTION = "description";
+    private static final String DETAILED_DESCRIPTION = "detailedDescription";
+    private static final String STEP = "step";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${recipe.export.fetch-size:500}")
+    private int fetchSize;
+
+    public Optional<RecipeDTO> findById(UUID id) {
+        return findAllById(List.of(id)).stream().findFirst();
+    }
+
+    /**
+     * <p>Recipes with the given ids, in no particular order; unknown ids are skipped</p>
+     */
+    public List<RecipeDTO> findAllById(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return assemble(entityManager.createQuery("SELECT r.id AS id, r.name AS name, r.servings AS servings, " +
+                        "r.preparationTime AS preparationTime, r.cookingTime AS cookingTime, " +
+                        "r.categoryType AS category, r.createdDate AS createdDate, r.version AS version " +
+                        "FROM Recipe r WHERE r.id IN (:ids)", Tuple.class)
+                .setParameter("ids", ids)
+                .getResultList());
+    }
+
+    /**
+     * <p>Ids of the recipes matching the specification, nothing else being read</p>
+     */
+    public Set<UUID> findIds(Specification<Recipe> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UUID> query = cb.createQuery(UUID.class);
+        Root<Recipe> root = query.from(Recipe.class);
+        query.select(root.get(AbstractEntity_.id));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return new HashSet<>(entityManager.createQuery(query).getResultList());
+    }
+
+    /**
+     * <p>Fetches one row past the requested page to tell whether a next page exists, without a count query</p>
+     */
+    public Slice<RecipeDTO> findSlice(Specification<Recipe> specification, Pageable pageable) {
+        return findSlice(specification, pageable, true);
+    }
+
+    /**
+     * <p>Same as {@link #findSlice(Specification, Pageable)}, the recipes being read without their ingredients and
+     * instructions, in a single statement, unless asked otherwise. {@link #withCollections(List)} reads them
+     * afterwards.</p>
+     */
+    public Slice<RecipeDTO> findSlice(Specification<Recipe> specification, Pageable pageable,
+                                      boolean withCollections) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Recipe> root = select(query, specification);
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(toOrders(pageable.getSort(), root, cb));
+        }
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize() + 1);
+        }
+        List<RecipeDTO> content = withCollections
+                ? assemble(typedQuery.getResultList())
+                : headers(typedQuery.getResultList());
+
+        boolean hasNext = pageable.isPaged() && content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    /**
+     * <p>Hands every recipe matching the specification over to the consumer in creation order, in batches of the
+     * fetch size. The rows are read forward only, each batch costing the two statements of its children, and the
+     * persistence context is cleared after every batch, so the memory held does not grow with the number of
+     * recipes. Runs within the caller's transaction, which keeps the cursor open.</p>
+     */
+    public void scroll(Specification<Recipe> specification, Consumer<List<RecipeDTO>> consumer) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Recipe> root = select(query, specification);
+        query.orderBy(cb.asc(root.get(AbstractAuditableEntity_.createdDate)), cb.asc(root.get(AbstractEntity_.id)));
+
+        try (Stream<Tuple> rows = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream()) {
+            List<Tuple> batch = new ArrayList<>(fetchSize);
+            UUID previous = null;
+            for (Iterator<Tuple> iterator = rows.iterator(); iterator.hasNext(); ) {
+                Tuple row = iterator.next();
+                UUID id = row.get(ID, UUID.class);
+                // join based filters repeat a recipe on consecutive rows, possibly across two batches
+                if (id.equals(previous)) {
+                    continue;
+                }
+                previous = id;
+                batch.add(row);
+                if (batch.size() == fetchSize) {
+                    consumer.accept(assemble(batch));
+                    batch.clear();
+                    entityManager.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                consumer.accept(assemble(batch));
+            }
+        }
+    }
+
+    private Root<Recipe> select(CriteriaQuery<Tuple> query, Specification<Recipe> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        Root<Recipe> root = query.from(Recipe.class);
+        query.multiselect(root.get(AbstractEntity_.id).alias(ID),
+                root.get(Recipe_.name).alias(NAME),
+                root.get(Recipe_.servings).alias(SERVINGS),
+                root.get(Recipe_.preparationTime).alias(PREPARATION_TIME),
+                root.get(Recipe_.cookingTime).alias(COOKING_TIME),
+                root.get(Recipe_.categoryType).alias(CATEGORY),
+                root.get(AbstractAuditableEntity_.createdDate).alias(CREATED_DATE),
+                root.get(AbstractAuditableEntity_.version).alias(VERSION));
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return root;
+    }
+
+    /**
+     * <p>Copies of the recipes, read without their collections, holding their ingredients and instructions</p>
+     */
+    public List<RecipeDTO> withCollections(List<RecipeDTO> recipes) {
+        if (recipes.isEmpty()) {
+            return List.of();
+        }
+        Set<UUID> recipeIds = new LinkedHashSet<>();
+        recipes.forEach(recipe -> recipeIds.add(recipe.getId()));
+        Map<UUID, List<IngredientDTO>> ingredients = findIngredients(recipeIds);
+        Map<UUID, List<InstructionDTO>> instructions = findInstructions(recipeIds);
+
+        return recipes.stream()
+                .<RecipeDTO>map(recipe -> RecipeDTO.builder()
+                        .id(recipe.getId())
+                        .name(recipe.getName())
+                        .servings(recipe.getServings())
+                        .preparationTime(recipe.getPreparationTime())
+                        .cookingTime(recipe.getCookingTime())
+                        .categoryType(recipe.getCategoryType())
+                        .createdDate(recipe.getCreatedDate())
+                        .version(recipe.getVersion())
+                        .ingredients(ingredients.getOrDefault(recipe.getId(), List.of()))
+                        .instructions(instructions.getOrDefault(recipe.getId(), List.of()))
+                        .build())
+                .toList();
+    }
+
+    private List<RecipeDTO> assemble(List<Tuple> rows) {
+        return withCollections(headers(rows));
+    }
+
+    private List<RecipeDTO> headers(List<Tuple> rows) {
+        // join based filters may repeat a recipe, keep its first position only
+        Map<UUID, Tuple> recipes = new LinkedHashMap<>();
+        rows.forEach(row -> recipes.putIfAbsent(row.get(ID, UUID.class), row));
+
+        return recipes.values().stream()
+                .<RecipeDTO>map(row -> RecipeDTO.builder()
+                        .id(row.get(ID, UUID.class))
+                        .name(row.get(NAME, String.class))
+                        .servings(row.get(SERVINGS, Integer.class))
+                        .preparationTime(row.get(PREPARATION_TIME, Integer.class))
+                        .cookingTime(row.get(COOKING_TIME, Integer.class))
+                        .categoryType(CategoryDTO.valueOf(row.get(CATEGORY, CategoryType.class).name()))
+                        .createdDate(row.get(CREATED_DATE, Instant.class))
+                        .version(row.get(VERSION, Long.class))
+                        .build())
+                .toList();
+    }
+
+    private Map<UUID, List<IngredientDTO>> findIngredients(Collection<UUID> recipeIds) {
+        Map<UUID, List<IngredientDTO>> ingredients = new HashMap<>();
+        entityManager.createQuery("SELECT i.recipeId AS recipeId, i.id AS id, i.description AS description " +
+                        "FROM Ingredient i WHERE i.recipeId IN (:recipeIds)", Tuple.class)
+                .setParameter("recipeIds", recipeIds)
+                .getResultList()
+                .forEach(row -> ingredients.computeIfAbsent(row.get(RECIPE_ID, UUID.class), k -> new ArrayList<>())
+                        .add(IngredientDTO.builder()
+                                .id(row.get(ID, UUID.class))
+                                .description(row.get(DESCRIPTION, String.class))
+                                .build()));
+        // same order as the entity's sorted set
+        ingredients.values().forEach(Collections::sort);
+        return ingredients;
+    }
+
+    private Map<UUID, List<InstructionDTO>> findInstructions(Collection<UUID> recipeIds) {
+        Map<UUID, List<InstructionDTO>> instructions = new HashMap<>();
+        entityManager.createQuery("SELECT i.recipeId AS recipeId, i.id AS id, i.description AS description, " +
+                        "i.detailedDescription AS detailedDescription, i.step AS step " +
+                        "FROM Instruction i WHERE i.recipeId IN (:recipeIds)", Tuple.class)
+                .setParameter("recipeIds", recipeIds)
+                .getResultList()
+                .forEach(row -> instructions.computeIfAbsent(row.get(RECIPE_ID, UUID.class), k -> new ArrayList<>())
+                        .add(InstructionDTO.builder()
+                                .id(row.get(ID, UUID.class))
+                                .description(row.get(DESCRIPTION, String.class))
+                                .detailedDescription(row.get(DETAILED_DESCRIPTION, String.class))
+                                .step(row.get(STEP, Integer.class))
+                                .build()));
+        // same order as the entity's sorted set
+        instructions.values().forEach(list -> list.sort(Comparator.comparing(InstructionDTO::getStep)));
+        return instructions;
+    }
+}
@@ -1,25 +1,102 @@
 package com.km.recipe.domain.repository;
 
+import com.km.recipe.domain.CategoryType;
 import com.km.recipe.domain.Recipe;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
 public interface RecipeRepository extends JpaRepository<Recipe, UUID>, JpaSpecificationExecutor<Recipe> {
 
-    @Query(value = "SELECT r FROM Recipe r WHERE UPPER(r.name) = UPPER(:name)")
-    Optional<Recipe> findByName(@Param("name") String name);
+    /**
+     * <p>Query cache region of the name lookups, invalidated by Hibernate whenever the recipe table is written</p>
+     */
+    String NAME_QUERY_REGION = "recipe-by-name";
 
-    @Query(value = "SELECT CASE WHEN count(r) > 0 THEN true ELSE false END FROM Recipe r WHERE UPPER(r.name) = UPPER(:name)")
-    boolean existsByName(@Param("name") String name);
+    /**
+     * <p>Query space of the bulk statements below. Naming no mapped table keeps Hibernate from invalidating whole
+     * second-level cache regions; the written recipe's own entries are evicted by the
+     * {@link com.km.recipe.cache.RecipeCacheEvictor} instead.</p>
+     */
+    String BULK_QUERY_SPACE = "recipe_bulk";
 
-    @Query(value = "SELECT CASE WHEN count(r) > 0 THEN true ELSE false END FROM Recipe r WHERE UPPER(r.name) = UPPER(:name) " +
+    default Optional<Recipe> findByName(String name) {
+        return findByNameKey(Recipe.nameKey(name));
+    }
+
+    default boolean existsByName(String name) {
+        return existsByNameKey(Recipe.nameKey(name));
+    }
+
+    default boolean existsByNameWithDifferentId(String name, UUID id) {
+        return existsByNameKeyWithDifferentId(Recipe.nameKey(name), id);
+    }
+
+    @Query(value = "SELECT r FROM Recipe r WHERE r.nameKey = :nameKey")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = NAME_QUERY_REGION)
+    })
+    Optional<Recipe> findByNameKey(@Param("nameKey") String nameKey);
+
+    @Query(value = "SELECT CASE WHEN count(r) > 0 THEN true ELSE false END FROM Recipe r WHERE r.nameKey = :nameKey")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = NAME_QUERY_REGION)
+    })
+    boolean existsByNameKey(@Param("nameKey") String nameKey);
+
+    @Query(value = "SELECT CASE WHEN count(r) > 0 THEN true ELSE false END FROM Recipe r WHERE r.nameKey = :nameKey " +
             "AND r.id <> :id")
-    boolean existsByNameWithDifferentId(@Param("name") String name, @Param("id") UUID id);
+    boolean existsByNameKeyWithDifferentId(@Param("nameKey") String nameKey, @Param("id") UUID id);
+
+    /**
+     * <p>Keys, among the given {@link Recipe#nameKey(String) name keys}, already taken by a recipe. The lookup goes
+     * through the unique index on the key.</p>
+     */
+    @Query(value = "SELECT r.nameKey FROM Recipe r WHERE r.nameKey IN (:nameKeys)")
+    Set<String> findExistingNameKeys(@Param("nameKeys") Collection<String> nameKeys);
+
+    /**
+     * <p>Name, category and servings of every recipe, read without hydrating the entities</p>
+     */
+    @Query(value = "SELECT new com.km.recipe.domain.repository.RecipeRepository$RecipeHeader(r.id, r.name, " +
+            "r.categoryType, r.servings) FROM Recipe r")
+    List<RecipeHeader> findAllHeaders();
+
+    @Query(value = "SELECT new com.km.recipe.domain.repository.RecipeRepository$RecipeHeader(r.id, r.name, " +
+            "r.categoryType, r.servings) FROM Recipe r WHERE r.id IN (:ids)")
+    List<RecipeHeader> findHeadersByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query(value = "SELECT r.version FROM Recipe r WHERE r.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    @Modifying
+    @Query(value = "UPDATE recipe SET version = version + 1, updated_date = :updatedDate WHERE id = :id",
+            nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = BULK_QUERY_SPACE))
+    int incrementVersion(@Param("id") UUID id, @Param("updatedDate") Instant updatedDate);
+
+    @Modifying
+    @Query(value = "UPDATE recipe SET version = version + 1, updated_date = :updatedDate WHERE id = :id " +
+            "AND version = :version", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = BULK_QUERY_SPACE))
+    int incrementVersion(@Param("id") UUID id, @Param("version") long version, @Param("updatedDate") Instant updatedDate);
+
+    record RecipeHeader(UUID id, String name, CategoryType categoryType, Integer servings) {
+    }
 }
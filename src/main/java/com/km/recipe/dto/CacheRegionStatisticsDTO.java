@@ -0,0 +1,27 @@
+package com.km.recipe.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Getter;
+
+@Builder
+@Getter
+public class CacheRegionStatisticsDTO {
+
+    private String region;
+
+    @JsonProperty("hit_count")
+    private long hitCount;
+
+    @JsonProperty("miss_count")
+    private long missCount;
+
+    @JsonProperty("put_count")
+    private long putCount;
+
+    /**
+     * <p>Share of the lookups served from the region, {@code 0} until the region is first read</p>
+     */
+    @JsonProperty("hit_ratio")
+    private double hitRatio;
+}
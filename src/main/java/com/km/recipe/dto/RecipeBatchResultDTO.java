@@ -0,0 +1,30 @@
+package com.km.recipe.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * <p>Outcome of one recipe of a batch creation, at the same position as the recipe in the request</p>
+ */
+@Builder
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RecipeBatchResultDTO {
+
+    private String name;
+
+    private Status status;
+
+    /**
+     * <p>Id of the created recipe, absent on conflict</p>
+     */
+    private UUID id;
+
+    public enum Status {
+        CREATED,
+        CONFLICT
+    }
+}
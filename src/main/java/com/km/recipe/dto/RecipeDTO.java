@@ -1,10 +1,12 @@
 package com.km.recipe.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
 import javax.validation.constraints.NotNull;
+import java.time.Instant;
 import java.util.UUID;
 
 @SuperBuilder
@@ -14,4 +16,10 @@ public class RecipeDTO extends RecipeModel {
 
     @NotNull
     private UUID id;
+
+    @JsonIgnore
+    private Instant createdDate;
+
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,39 @@
+package com.km.recipe.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * <p>Progress of a recipe import as of its last committed chunk</p>
+ */
+@Builder
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RecipeImportDTO {
+
+    @JsonProperty("import_id")
+    private String importId;
+
+    private String status;
+
+    private long records;
+
+    private long created;
+
+    private long conflicts;
+
+    private long rejected;
+
+    @JsonProperty("byte_offset")
+    private long byteOffset;
+
+    /**
+     * <p>Records read per second since the import was last started or resumed</p>
+     */
+    @JsonProperty("rows_per_second")
+    private double rowsPerSecond;
+
+    private String failure;
+}
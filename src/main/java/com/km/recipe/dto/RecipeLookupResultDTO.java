@@ -0,0 +1,25 @@
+package com.km.recipe.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * <p>Outcome of looking one id up, at the same position as the id in the request</p>
+ */
+@Builder
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RecipeLookupResultDTO {
+
+    private UUID id;
+
+    private boolean found;
+
+    /**
+     * <p>The recipe, absent when not found</p>
+     */
+    private RecipeDTO recipe;
+}
@@ -0,0 +1,16 @@
+package com.km.recipe.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * <p>Recipe matching a search query, along with its relevance score; hits come best first</p>
+ */
+@Builder
+@Getter
+public class RecipeSearchHitDTO {
+
+    private double score;
+
+    private RecipeDTO recipe;
+}
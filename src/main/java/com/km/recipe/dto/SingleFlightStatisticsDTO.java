@@ -0,0 +1,24 @@
+package com.km.recipe.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Getter;
+
+@Builder
+@Getter
+public class SingleFlightStatisticsDTO {
+
+    private String name;
+
+    /**
+     * <p>Loads which went to the database</p>
+     */
+    @JsonProperty("executed_count")
+    private long executedCount;
+
+    /**
+     * <p>Calls which shared the result of a load already in flight rather than running their own</p>
+     */
+    @JsonProperty("coalesced_count")
+    private long coalescedCount;
+}
@@ -0,0 +1,16 @@
+package com.km.recipe.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * <p>Completion of a prefix, along with the number of recipes using it</p>
+ */
+@Builder
+@Getter
+public class SuggestionDTO {
+
+    private String value;
+
+    private int weight;
+}
@@ -32,10 +32,16 @@ public abstract class AbstractPage<T> {
     @JsonProperty("size")
     private Integer size;
 
+    @JsonProperty("hasNext")
+    private Boolean hasNext;
+
     @JsonProperty("totalElements")
     private Long totalElements;
 
     @JsonProperty("totalPages")
     private Integer totalPages;
 
+    @JsonProperty("nextCursor")
+    private String nextCursor;
+
 }
@@ -1,10 +1,11 @@
 package com.km.recipe.dto.page;
 
-import com.km.recipe.domain.Recipe;
-import com.km.recipe.mappers.RecipeMapper;
 import com.km.recipe.dto.RecipeDTO;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 public class RecipePage extends AbstractPage<RecipeDTO> {
@@ -14,19 +15,62 @@ public class RecipePage extends AbstractPage<RecipeDTO> {
                       Boolean first,
                       Boolean last,
                       Integer number,
-                      Integer size, Long totalElements,
-                      Integer totalPages) {
-        super(content, empty, first, last, number, size, totalElements, totalPages);
+                      Integer size,
+                      Boolean hasNext,
+                      Long totalElements,
+                      Integer totalPages,
+                      String nextCursor) {
+        super(content, empty, first, last, number, size, hasNext, totalElements, totalPages, nextCursor);
     }
 
-    public static RecipePage toPage(Page<Recipe> page) {
-        return new RecipePage(RecipeMapper.INSTANCE.toDto(page.getContent()),
+    public static RecipePage toPage(Page<RecipeDTO> page) {
+        return new RecipePage(new LinkedHashSet<>(page.getContent()),
                 page.isEmpty(),
                 page.isFirst(),
                 page.isLast(),
                 page.getNumber(),
                 page.getSize(),
-                page.getTotalElements(), page.getTotalPages());
+                page.hasNext(),
+                page.getTotalElements(), page.getTotalPages(),
+                null);
+    }
+
+    /**
+     * <p>Same page holding the given recipes instead of its own</p>
+     */
+    public RecipePage withContent(Collection<RecipeDTO> content) {
+        return new RecipePage(new LinkedHashSet<>(content), isEmpty(), getFirst(), getLast(), getNumber(), getSize(),
+                getHasNext(), getTotalElements(), getTotalPages(), getNextCursor());
+    }
+
+    /**
+     * <p>Page reporting only whether a next page exists, for clients that do not need totals</p>
+     */
+    public static RecipePage toSlicePage(Slice<RecipeDTO> slice) {
+        return new RecipePage(new LinkedHashSet<>(slice.getContent()),
+                slice.isEmpty(),
+                slice.isFirst(),
+                slice.isLast(),
+                slice.getNumber(),
+                slice.getSize(),
+                slice.hasNext(),
+                null, null,
+                null);
+    }
+
+    /**
+     * <p>Keyset page carrying the cursor of its next page, if any, instead of page numbers and totals</p>
+     */
+    public static RecipePage toCursorPage(Slice<RecipeDTO> slice, boolean first, String nextCursor) {
+        return new RecipePage(new LinkedHashSet<>(slice.getContent()),
+                slice.isEmpty(),
+                first,
+                !slice.hasNext(),
+                null,
+                slice.getSize(),
+                slice.hasNext(),
+                null, null,
+                nextCursor);
     }
 
 }
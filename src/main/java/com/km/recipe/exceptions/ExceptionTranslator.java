@@ -23,11 +23,21 @@ public class ExceptionTranslator extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(new ErrorResponseDTO(ex.getMessage()), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(value = {RecipeImportNotFoundException.class})
+    public ResponseEntity<Object> handleRecipeImportNotFound(RecipeImportNotFoundException ex) {
+        return new ResponseEntity<>(new ErrorResponseDTO(ex.getMessage()), HttpStatus.NOT_FOUND);
+    }
+
     @ExceptionHandler(value = {RecipeViolationException.class})
     public ResponseEntity<Object> handleIntegrityViolation(RecipeViolationException ex) {
         return new ResponseEntity<>(new ErrorResponseDTO(ex.getMessage()), HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(value = {RecipePreconditionFailedException.class})
+    public ResponseEntity<Object> handlePreconditionFailed(RecipePreconditionFailedException ex) {
+        return new ResponseEntity<>(new ErrorResponseDTO(ex.getMessage()), HttpStatus.PRECONDITION_FAILED);
+    }
+
     @ExceptionHandler(value = {Exception.class})
     public ResponseEntity<Object> handleException(Exception ex) {
         return new ResponseEntity<>(new ErrorResponseDTO(ex.getMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -38,7 +48,7 @@ public class ExceptionTranslator extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(new ErrorResponseDTO(ex.getMessage()), HttpStatus.UNPROCESSABLE_ENTITY);
     }
 
-    @ExceptionHandler(value = {InvalidCreationRequestException.class})
+    @ExceptionHandler(value = {InvalidCreationRequestException.class, InvalidLookupRequestException.class})
     public ResponseEntity<Object> handleInvalidCreationRequest(RuntimeException ex) {
         return new ResponseEntity<>(new ErrorResponseDTO(ex.getMessage()), HttpStatus.BAD_REQUEST);
     }
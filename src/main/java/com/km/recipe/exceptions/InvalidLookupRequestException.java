@@ -0,0 +1,9 @@
+package com.km.recipe.exceptions;
+
+public class InvalidLookupRequestException extends RuntimeException {
+
+    public InvalidLookupRequestException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.km.recipe.exceptions;
+
+public class RecipeImportNotFoundException extends RuntimeException {
+
+    public RecipeImportNotFoundException(String importId) {
+        super(String.format("Recipe import with id: %s, not found", importId));
+    }
+}
@@ -0,0 +1,14 @@
+package com.km.recipe.exceptions;
+
+import java.util.UUID;
+
+public class RecipePreconditionFailedException extends RuntimeException {
+
+    public RecipePreconditionFailedException(UUID recipeId, long expectedVersion) {
+        super(String.format("Recipe with id: %s, is no longer at version: %d", recipeId, expectedVersion));
+    }
+
+    public RecipePreconditionFailedException(String eTag) {
+        super(String.format("Entity tag: %s, does not identify a recipe version", eTag));
+    }
+}
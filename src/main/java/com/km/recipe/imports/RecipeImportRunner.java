@@ -0,0 +1,34 @@
+package com.km.recipe.imports;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * <p>Imports an NDJSON file on startup, e.g.
+ * {@code java -jar recipes-service.jar --spring.main.web-application-type=none --recipe.import.file=recipes.ndjson}.
+ * The import id defaults to the file name, so that running the same command again resumes an interrupted import.</p>
+ */
+@Component
+@ConditionalOnProperty("recipe.import.file")
+@RequiredArgsConstructor
+public class RecipeImportRunner implements ApplicationRunner {
+
+    private final RecipeImporter importer;
+
+    @Value("${recipe.import.file}")
+    private Path file;
+
+    @Value("${recipe.import.id:}")
+    private String importId;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        importer.importRecipes(importId.isEmpty() ? file.getFileName().toString() : importId, file);
+    }
+}
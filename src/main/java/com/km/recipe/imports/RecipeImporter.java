@@ -0,0 +1,343 @@
+package com.km.recipe.imports;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.km.recipe.domain.Recipe;
+import com.km.recipe.domain.RecipeImport;
+import com.km.recipe.domain.repository.RecipeImportRepository;
+import com.km.recipe.dto.CreateRecipeDTO;
+import com.km.recipe.dto.RecipeBatchResultDTO;
+import com.km.recipe.dto.RecipeImportDTO;
+import com.km.recipe.exceptions.InvalidRequestException;
+import com.km.recipe.exceptions.RecipeImportNotFoundException;
+import com.km.recipe.mappers.RecipeMapper;
+import com.km.recipe.service.contract.RecipeService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * <p>Imports recipes from NDJSON sources of any size. Records are parsed one at a time from the stream, validated and
+ * mapped, then handed over in chunks through a bounded queue to a single writer, which inserts every chunk in its own
+ * transaction along with the import checkpoint. Parsing never runs more than the queue capacity ahead of the writes,
+ * so memory stays flat whatever the size of the source.</p>
+ *
+ * <p>Running an import again under the same id resumes it right after its last committed chunk. Invalid records are
+ * counted as rejected and skipped; a malformed source or a failed write stops the import, which can then be
+ * resumed.</p>
+ */
+@Slf4j
+@Component
+public class RecipeImporter {
+
+    private final RecipeService recipeService;
+    private final RecipeImportRepository importRepository;
+    private final RecipeMapper recipeMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int queueCapacity;
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public RecipeImporter(RecipeService recipeService,
+                          RecipeImportRepository importRepository,
+                          RecipeMapper recipeMapper,
+                          Validator validator,
+                          ObjectMapper objectMapper,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${recipe.import.chunk-size:1000}") int chunkSize,
+                          @Value("${recipe.import.queue-capacity:4}") int queueCapacity) {
+        this.recipeService = recipeService;
+        this.importRepository = importRepository;
+        this.recipeMapper = recipeMapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * <p>Imports a stream which is sent again from its start on resume, the committed records being skipped</p>
+     */
+    public RecipeImportDTO importRecipes(String importId, InputStream in) {
+        return run(importId, checkpoint -> new Source(in, checkpoint.getRecordOffset(), 0));
+    }
+
+    /**
+     * <p>Imports a file, seeking straight past the committed bytes on resume</p>
+     */
+    public RecipeImportDTO importRecipes(String importId, Path file) {
+        return run(importId, checkpoint -> {
+            FileChannel channel = FileChannel.open(file).position(checkpoint.getByteOffset());
+            return new Source(Channels.newInputStream(channel), 0, checkpoint.getByteOffset());
+        });
+    }
+
+    public RecipeImportDTO findImport(String importId) {
+        return importRepository.findById(importId)
+                .map(RecipeImporter::toDto)
+                .orElseThrow(() -> new RecipeImportNotFoundException(importId));
+    }
+
+    private RecipeImportDTO run(String importId, SourceOpener opener) {
+        if (!running.add(importId)) {
+            throw new InvalidRequestException(String.format("Import is already running, id: %s", importId));
+        }
+        try {
+            RecipeImport checkpoint = transactionTemplate.execute(status -> start(importId));
+            if (checkpoint.getStatus() == RecipeImport.Status.COMPLETED) {
+                return toDto(checkpoint);
+            }
+
+            RecipeImport completed;
+            try {
+                completed = pipe(checkpoint, opener.open(checkpoint));
+            } catch (Exception ex) {
+                Throwable cause = ex instanceof ExecutionException ? ex.getCause() : ex;
+                transactionTemplate.executeWithoutResult(status -> importRepository.markFailed(importId,
+                        StringUtils.abbreviate(String.valueOf(cause.getMessage()), 1000), Instant.now()));
+                log.error("Import {} failed", importId, cause);
+                if (cause instanceof JsonProcessingException) {
+                    throw new InvalidRequestException(String.format("Malformed record in import %s: %s",
+                            importId, ((JsonProcessingException) cause).getOriginalMessage()));
+                }
+                throw new IllegalStateException(String.format("Import %s failed: %s", importId, cause.getMessage()),
+                        cause);
+            }
+
+            log.info("Import {} completed: {} records, {} created, {} conflicts, {} rejected", importId,
+                    completed.getRecordOffset(), completed.getCreated(), completed.getConflicts(),
+                    completed.getRejected());
+            return toDto(completed);
+        } finally {
+            running.remove(importId);
+        }
+    }
+
+    /**
+     * <p>The writer owns the checkpoint from here on, reading and writing it in transactions of its own thread, so
+     * that the caller's persistence context, which may be held open for the whole request, never sees it stale</p>
+     */
+    private RecipeImport pipe(RecipeImport checkpoint, Source source) throws Exception {
+        BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService executor = Executors.newSingleThreadExecutor(
+                runnable -> new Thread(runnable, "recipe-import-" + checkpoint.getImportId()));
+        try (InputStream in = source.in();
+             JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            Future<RecipeImport> writer = executor.submit(() -> write(checkpoint.getImportId(), queue));
+            try {
+                produce(checkpoint, parser, source, chunk -> put(queue, chunk, writer));
+            } catch (Exception ex) {
+                // the records read before the failure are still committed
+                put(queue, Chunk.ABORT, writer);
+                writer.get();
+                throw ex;
+            }
+            put(queue, Chunk.END, writer);
+            return writer.get();
+        } finally {
+            // unblocks the writer when it is still waiting for chunks
+            executor.shutdownNow();
+        }
+    }
+
+    private void produce(RecipeImport checkpoint, JsonParser parser, Source source, ChunkConsumer consumer)
+            throws Exception {
+        long skipped = 0;
+        while (skipped < source.recordsToSkip() && parser.nextToken() != null) {
+            parser.skipChildren();
+            skipped++;
+        }
+        if (skipped < source.recordsToSkip()) {
+            throw new IllegalStateException(String.format("Source holds %d records, %d were already imported",
+                    skipped, source.recordsToSkip()));
+        }
+
+        long record = checkpoint.getRecordOffset();
+        List<Recipe> recipes = new ArrayList<>(chunkSize);
+        int records = 0;
+        int rejected = 0;
+        while (parser.nextToken() != null) {
+            record++;
+            records++;
+            Recipe recipe = parser.currentToken() == JsonToken.START_OBJECT
+                    ? toRecipe(checkpoint.getImportId(), record, objectMapper.readTree(parser))
+                    : reject(checkpoint.getImportId(), record, parser);
+            if (recipe == null) {
+                rejected++;
+            } else {
+                recipes.add(recipe);
+            }
+
+            if (records == chunkSize) {
+                consumer.accept(new Chunk(recipes, rejected, record,
+                        source.baseOffset() + parser.currentLocation().getByteOffset()));
+                recipes = new ArrayList<>(chunkSize);
+                records = 0;
+                rejected = 0;
+            }
+        }
+        if (records > 0) {
+            consumer.accept(new Chunk(recipes, rejected, record,
+                    source.baseOffset() + parser.currentLocation().getByteOffset()));
+        }
+    }
+
+    private Recipe toRecipe(String importId, long record, JsonNode node) {
+        String violations;
+        try {
+            CreateRecipeDTO dto = objectMapper.treeToValue(node, CreateRecipeDTO.class);
+            violations = validate(dto);
+            if (violations.isEmpty()) {
+                Recipe recipe = recipeMapper.toEntity(dto);
+                violations = validate(recipe);
+                if (violations.isEmpty()) {
+                    return recipe;
+                }
+            }
+        } catch (JsonProcessingException ex) {
+            violations = ex.getOriginalMessage();
+        }
+        log.warn("Import {} rejected record {}: {}", importId, record, violations);
+        return null;
+    }
+
+    private Recipe reject(String importId, long record, JsonParser parser) throws IOException {
+        log.warn("Import {} rejected record {}: not an object but {}", importId, record, parser.currentToken());
+        parser.skipChildren();
+        return null;
+    }
+
+    private String validate(Object bean) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(bean);
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static void put(BlockingQueue<Chunk> queue, Chunk chunk, Future<?> writer) throws Exception {
+        do {
+            if (writer.isDone()) {
+                // surfaces the failure of the writer, which stops taking chunks
+                writer.get();
+                throw new IllegalStateException("Writer stopped before the end of the import");
+            }
+        } while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS));
+    }
+
+    private RecipeImport write(String importId, BlockingQueue<Chunk> queue) throws InterruptedException {
+        for (Chunk chunk = queue.take(); chunk != Chunk.END; chunk = queue.take()) {
+            if (chunk == Chunk.ABORT) {
+                return null;
+            }
+            Chunk committed = chunk;
+            RecipeImport checkpoint = transactionTemplate.execute(status -> commit(importId, committed));
+            log.info("Import {}: {} records, {} created, {} conflicts, {} rejected, {} rows/s", importId,
+                    checkpoint.getRecordOffset(), checkpoint.getCreated(), checkpoint.getConflicts(),
+                    checkpoint.getRejected(), Math.round(checkpoint.getRowsPerSecond()));
+        }
+        return transactionTemplate.execute(status -> complete(importId));
+    }
+
+    private RecipeImport start(String importId) {
+        RecipeImport checkpoint = importRepository.findById(importId).orElseGet(() -> new RecipeImport(importId));
+        if (checkpoint.getStatus() == RecipeImport.Status.COMPLETED) {
+            return checkpoint;
+        }
+        Instant now = Instant.now();
+        checkpoint.setStatus(RecipeImport.Status.RUNNING);
+        checkpoint.setRunOffset(checkpoint.getRecordOffset());
+        checkpoint.setRunStartedDate(now);
+        checkpoint.setUpdatedDate(now);
+        checkpoint.setFailure(null);
+        return importRepository.save(checkpoint);
+    }
+
+    private RecipeImport commit(String importId, Chunk chunk) {
+        List<RecipeBatchResultDTO> results = chunk.recipes().isEmpty()
+                ? List.of()
+                : recipeService.insertAll(chunk.recipes());
+        long created = results.stream().filter(result -> result.getStatus() == RecipeBatchResultDTO.Status.CREATED)
+                .count();
+
+        RecipeImport checkpoint = importRepository.getReferenceById(importId);
+        checkpoint.setRecordOffset(chunk.recordOffset());
+        checkpoint.setByteOffset(chunk.byteOffset());
+        checkpoint.setCreated(checkpoint.getCreated() + created);
+        checkpoint.setConflicts(checkpoint.getConflicts() + results.size() - created);
+        checkpoint.setRejected(checkpoint.getRejected() + chunk.rejected());
+        checkpoint.setUpdatedDate(Instant.now());
+        return checkpoint;
+    }
+
+    private RecipeImport complete(String importId) {
+        RecipeImport checkpoint = importRepository.getReferenceById(importId);
+        checkpoint.setStatus(RecipeImport.Status.COMPLETED);
+        checkpoint.setUpdatedDate(Instant.now());
+        return checkpoint;
+    }
+
+    private static RecipeImportDTO toDto(RecipeImport checkpoint) {
+        return RecipeImportDTO.builder()
+                .importId(checkpoint.getImportId())
+                .status(checkpoint.getStatus().name())
+                .records(checkpoint.getRecordOffset())
+                .created(checkpoint.getCreated())
+                .conflicts(checkpoint.getConflicts())
+                .rejected(checkpoint.getRejected())
+                .byteOffset(checkpoint.getByteOffset())
+                .rowsPerSecond(checkpoint.getRowsPerSecond())
+                .failure(checkpoint.getFailure())
+                .build();
+    }
+
+    /**
+     * <p>Where to read the records from, and how far the source is from the checkpoint</p>
+     */
+    private record Source(InputStream in, long recordsToSkip, long baseOffset) {
+    }
+
+    /**
+     * <p>Records read since the previous chunk, the offsets pointing right after the last of them</p>
+     */
+    private record Chunk(List<Recipe> recipes, int rejected, long recordOffset, long byteOffset) {
+
+        static final Chunk END = new Chunk(List.of(), 0, -1, -1);
+        static final Chunk ABORT = new Chunk(List.of(), 0, -1, -1);
+    }
+
+    @FunctionalInterface
+    private interface SourceOpener {
+
+        Source open(RecipeImport checkpoint) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ChunkConsumer {
+
+        void accept(Chunk chunk) throws Exception;
+    }
+}
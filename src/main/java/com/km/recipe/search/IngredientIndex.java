@@ -0,0 +1,268 @@
+package com.km.recipe.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>In-memory index of the normalized ingredient descriptions of every recipe.</p>
+ * <p>Terms keep the substring semantics of the {@code LIKE '%term%'} filter: a {@link TrigramIndex} narrows
+ * the candidate recipes and the indexed descriptions confirm the exact match.</p>
+ * <p>The distinct words of the descriptions make up a dictionary, against which fuzzy terms are expanded to the
+ * words within a few typos of theirs.</p>
+ */
+@Component
+public class IngredientIndex {
+
+    static final int MIN_WORD_LENGTH = 3;
+    static final int MAX_EXPANSIONS = 32;
+
+    private final TrigramIndex trigrams = new TrigramIndex();
+    private final Map<String, Integer> wordCounts = new HashMap<>();
+    private BkTree dictionary = new BkTree();
+    private final Map<UUID, Map<UUID, String>> descriptions = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void rebuild(Map<UUID, Map<UUID, String>> ingredientsByRecipe) {
+        lock.writeLock().lock();
+        try {
+            descriptions.clear();
+            wordCounts.clear();
+            dictionary = new BkTree();
+            trigrams.rebuild(Map.of());
+            ingredientsByRecipe.forEach(this::put);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * <p>Replaces everything indexed for the recipe with the given ingredient descriptions keyed by ingredient id</p>
+     */
+    public void index(UUID recipeId, Map<UUID, String> ingredients) {
+        lock.writeLock().lock();
+        try {
+            evict(recipeId);
+            put(recipeId, ingredients);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID recipeId) {
+        lock.writeLock().lock();
+        try {
+            evict(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * <p>Whether the trigrams narrow down every term, terms shorter than a trigram having to be verified against
+     * every indexed description instead</p>
+     */
+    public static boolean canNarrow(Collection<String> terms) {
+        return terms.stream().allMatch(term -> normalize(term).length() >= TrigramIndex.GRAM_LENGTH);
+    }
+
+    /**
+     * <p>Ids of the recipes having, for every term, at least one ingredient containing it</p>
+     */
+    public Set<UUID> findMatchingAll(Collection<String> terms) {
+        lock.readLock().lock();
+        try {
+            Set<UUID> result = null;
+            for (String term : terms) {
+                Set<UUID> matches = find(term);
+                if (result == null) {
+                    result = matches;
+                } else {
+                    result.retainAll(matches);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result == null ? new HashSet<>() : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * <p>Ids of the recipes having at least one ingredient containing any of the terms</p>
+     */
+    public Set<UUID> findMatchingAny(Collection<String> terms) {
+        lock.readLock().lock();
+        try {
+            Set<UUID> result = new HashSet<>();
+            terms.forEach(term -> result.addAll(find(term)));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * <p>Same as {@link #findMatchingAll(Collection)}, a term also matching through any of its
+     * {@link #expand(String) expansions}</p>
+     */
+    public Set<UUID> findMatchingAllFuzzy(Collection<String> terms) {
+        lock.readLock().lock();
+        try {
+            Set<UUID> result = null;
+            for (String term : terms) {
+                Set<UUID> matches = new HashSet<>();
+                expandTerm(term).forEach(expansion -> matches.addAll(find(expansion)));
+                if (result == null) {
+                    result = matches;
+                } else {
+                    result.retainAll(matches);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result == null ? new HashSet<>() : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * <p>Same as {@link #findMatchingAny(Collection)}, a term also matching through any of its
+     * {@link #expand(String) expansions}</p>
+     */
+    public Set<UUID> findMatchingAnyFuzzy(Collection<String> terms) {
+        lock.readLock().lock();
+        try {
+            Set<UUID> result = new HashSet<>();
+            terms.forEach(term -> expandTerm(term).forEach(expansion -> result.addAll(find(expansion))));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * <p>The normalized term, followed by the terms obtained by replacing each of its words with the dictionary
+     * words within {@link #maxDistance(String)} edits of it, up to {@link #MAX_EXPANSIONS} terms</p>
+     */
+    public List<String> expand(String term) {
+        lock.readLock().lock();
+        try {
+            return expandTerm(term);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * <p>Typos tolerated in a word: none below three characters, one up to five and two beyond</p>
+     */
+    static int maxDistance(String word) {
+        return word.length() < MIN_WORD_LENGTH ? 0 : word.length() <= 5 ? 1 : 2;
+    }
+
+    public static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private List<String> expandTerm(String term) {
+        String normalized = normalize(term);
+        Set<String> expansions = new LinkedHashSet<>();
+        expansions.add(normalized);
+        List<String> phrases = List.of("");
+        for (String word : RecipeSearchIndex.tokenize(normalized)) {
+            List<String> alternatives = new ArrayList<>();
+            alternatives.add(word);
+            dictionary.search(word, maxDistance(word)).stream()
+                    .filter(candidate -> !candidate.equals(word) && wordCounts.containsKey(candidate))
+                    .forEach(alternatives::add);
+            List<String> next = new ArrayList<>();
+            for (String phrase : phrases) {
+                for (String alternative : alternatives) {
+                    if (next.size() < MAX_EXPANSIONS) {
+                        next.add(phrase.isEmpty() ? alternative : phrase + " " + alternative);
+                    }
+                }
+            }
+            phrases = next;
+        }
+        phrases.stream()
+                .filter(phrase -> !phrase.isEmpty())
+                .limit(MAX_EXPANSIONS - 1L)
+                .forEach(expansions::add);
+        return new ArrayList<>(expansions);
+    }
+
+    /**
+     * <p>Terms shorter than a trigram are verified against every indexed description, see
+     * {@link #canNarrow(Collection)}</p>
+     */
+    private Set<UUID> find(String term) {
+        String normalized = normalize(term);
+        return verify(trigrams.findCandidates(normalized).orElseGet(descriptions::keySet), normalized);
+    }
+
+    private Set<UUID> verify(Collection<UUID> candidates, String normalized) {
+        Set<UUID> result = new HashSet<>();
+        for (UUID recipeId : candidates) {
+            boolean matches = descriptions.getOrDefault(recipeId, Map.of()).values().stream()
+                    .anyMatch(description -> description.contains(normalized));
+            if (matches) {
+                result.add(recipeId);
+            }
+        }
+        return result;
+    }
+
+    private void put(UUID recipeId, Map<UUID, String> ingredients) {
+        if (ingredients.isEmpty()) {
+            return;
+        }
+        Map<UUID, String> normalized = new HashMap<>();
+        ingredients.forEach((ingredientId, description) -> normalized.put(ingredientId, normalize(description)));
+        descriptions.put(recipeId, normalized);
+        trigrams.index(recipeId, normalized.values());
+        words(normalized.values()).forEach(word -> {
+            if (wordCounts.merge(word, 1, Integer::sum) == 1) {
+                dictionary.add(word);
+            }
+        });
+    }
+
+    private void evict(UUID recipeId) {
+        Map<UUID, String> previous = descriptions.remove(recipeId);
+        if (previous != null) {
+            trigrams.remove(recipeId);
+            words(previous.values()).forEach(word ->
+                    wordCounts.computeIfPresent(word, (k, count) -> count == 1 ? null : count - 1));
+            // words left without any recipe stay in the tree and are skipped on lookup, until they make up half of it
+            if (dictionary.size() > 2 * wordCounts.size() + MAX_EXPANSIONS) {
+                dictionary = new BkTree();
+                wordCounts.keySet().forEach(dictionary::add);
+            }
+        }
+    }
+
+    /**
+     * <p>Distinct words of the descriptions, counted once per recipe</p>
+     */
+    private static Set<String> words(Collection<String> descriptions) {
+        Set<String> words = new HashSet<>();
+        descriptions.forEach(description -> RecipeSearchIndex.tokenize(description).stream()
+                .filter(word -> word.length() >= MIN_WORD_LENGTH)
+                .forEach(words::add));
+        return words;
+    }
+}
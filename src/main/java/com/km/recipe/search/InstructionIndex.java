@@ -0,0 +1,11 @@
+package com.km.recipe.search;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>Trigram index of the instruction descriptions. Instructions filters narrow their candidate recipes with it
+ * before the {@code LIKE} predicate confirms the matches among them.</p>
+ */
+@Component
+public class InstructionIndex extends TrigramIndex {
+}
@@ -0,0 +1,219 @@
+package com.km.recipe.search;
+
+import java.util.*;
+
+/**
+ * <p>Radix tree of weighted entries: chains of single-child nodes are collapsed into one edge, so the tree holds
+ * about one node per entry whatever the length of the keys. Each node also keeps the largest weight found below it,
+ * which lets {@link #top(String, int)} visit the subtrees best first and stop after the {@code k}-th entry.</p>
+ * <p>Not thread safe.</p>
+ */
+public class RadixTree {
+
+    private final Node root = new Node("");
+
+    /**
+     * <p>Adds the delta to the weight of the entry, creating it if needed and removing it once its weight drops to
+     * zero. The first value added under a key is the one returned for it.</p>
+     */
+    public void add(String key, String value, int delta) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        String rest = key;
+        while (!rest.isEmpty()) {
+            path.push(node);
+            Node child = node.child(rest.charAt(0));
+            if (child == null) {
+                if (delta <= 0) {
+                    return;
+                }
+                child = new Node(rest);
+                node.addChild(child);
+                node = child;
+                rest = "";
+                break;
+            }
+            int common = commonPrefixLength(child.label, rest);
+            if (common < child.label.length()) {
+                if (delta <= 0) {
+                    return;
+                }
+                child = node.split(child, common);
+            }
+            node = child;
+            rest = rest.substring(common);
+        }
+
+        node.weight = Math.max(0, node.weight + delta);
+        node.value = node.weight == 0 ? null : Optional.ofNullable(node.value).orElse(value);
+        node.updateMaxWeight();
+        while (!path.isEmpty()) {
+            Node parent = path.pop();
+            parent.compact(node);
+            parent.updateMaxWeight();
+            node = parent;
+        }
+    }
+
+    /**
+     * <p>At most {@code limit} entries whose keys start with the prefix, by descending weight then key</p>
+     */
+    public List<Entry> top(String prefix, int limit) {
+        Node node = root;
+        String path = "";
+        String rest = prefix;
+        while (!rest.isEmpty()) {
+            Node child = node.child(rest.charAt(0));
+            if (child == null) {
+                return List.of();
+            }
+            if (rest.length() <= child.label.length()) {
+                if (!child.label.startsWith(rest)) {
+                    return List.of();
+                }
+                rest = "";
+            } else {
+                if (!rest.startsWith(child.label)) {
+                    return List.of();
+                }
+                rest = rest.substring(child.label.length());
+            }
+            path += child.label;
+            node = child;
+        }
+
+        // a subtree is queued at the largest weight below it and its path, which no key below it precedes, so every
+        // entry is dequeued after the entries ranked before it
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        List<Entry> entries = new ArrayList<>(limit);
+        if (node.maxWeight > 0) {
+            queue.add(new Candidate(path, node, node.maxWeight, false));
+        }
+        while (entries.size() < limit && !queue.isEmpty()) {
+            Candidate candidate = queue.poll();
+            if (candidate.entry()) {
+                entries.add(new Entry(candidate.node().value, candidate.weight()));
+                continue;
+            }
+            Node current = candidate.node();
+            if (current.weight > 0) {
+                queue.add(new Candidate(candidate.key(), current, current.weight, true));
+            }
+            for (Node child : current.children) {
+                queue.add(new Candidate(candidate.key() + child.label, child, child.maxWeight, false));
+            }
+        }
+        return entries;
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * <p>Value of an entry along with its weight</p>
+     */
+    public record Entry(String value, int weight) {
+    }
+
+    private record Candidate(String key, Node node, int weight, boolean entry) implements Comparable<Candidate> {
+
+        @Override
+        public int compareTo(Candidate other) {
+            int byWeight = Integer.compare(other.weight, weight);
+            if (byWeight != 0) {
+                return byWeight;
+            }
+            int byKey = key.compareTo(other.key);
+            // an entry comes before the subtree below it, keyed alike
+            return byKey != 0 ? byKey : Boolean.compare(other.entry, entry);
+        }
+    }
+
+    private static class Node {
+
+        private static final Node[] LEAF = new Node[0];
+
+        private String label;
+        private Node[] children = LEAF;
+        private String value;
+        private int weight;
+        private int maxWeight;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private Node child(char first) {
+            for (Node child : children) {
+                if (child.label.charAt(0) == first) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        private void addChild(Node child) {
+            children = Arrays.copyOf(children, children.length + 1);
+            children[children.length - 1] = child;
+        }
+
+        private void replaceChild(Node previous, Node replacement) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == previous) {
+                    if (replacement == null) {
+                        Node[] remaining = new Node[children.length - 1];
+                        System.arraycopy(children, 0, remaining, 0, i);
+                        System.arraycopy(children, i + 1, remaining, i, children.length - i - 1);
+                        children = remaining.length == 0 ? LEAF : remaining;
+                    } else {
+                        children[i] = replacement;
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * <p>Inserts a node holding the first {@code length} characters of the child's label between this node and
+         * the child</p>
+         */
+        private Node split(Node child, int length) {
+            Node middle = new Node(child.label.substring(0, length));
+            child.label = child.label.substring(length);
+            middle.children = new Node[]{child};
+            middle.maxWeight = child.maxWeight;
+            replaceChild(child, middle);
+            return middle;
+        }
+
+        /**
+         * <p>Drops the child once it holds nothing, and merges it with its only child once it holds no entry</p>
+         */
+        private void compact(Node child) {
+            if (child.weight > 0) {
+                return;
+            }
+            if (child.children.length == 0) {
+                replaceChild(child, null);
+            } else if (child.children.length == 1) {
+                Node grandchild = child.children[0];
+                grandchild.label = child.label + grandchild.label;
+                replaceChild(child, grandchild);
+            }
+        }
+
+        private void updateMaxWeight() {
+            int max = weight;
+            for (Node child : children) {
+                max = Math.max(max, child.maxWeight);
+            }
+            maxWeight = max;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.km.recipe.search;
+
+import com.km.recipe.domain.CategoryType;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>Compressed bitmaps of the recipes per category and per number of servings. Recipes are numbered with dense
+ * ordinals, so that equality filters and the recipe sets of the other indexes combine with bitmap
+ * {@code AND} / {@code ANDNOT} operations rather than in the database.</p>
+ * <p>Ordinals of removed recipes are not reused until the next rebuild, so a bitmap taken before a removal never
+ * resolves to another recipe.</p>
+ */
+@Component
+public class RecipeBitmapIndex {
+
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final List<UUID> recipeIds = new ArrayList<>();
+    private final Map<CategoryType, RoaringBitmap> categories = new EnumMap<>(CategoryType.class);
+    private final Map<Integer, RoaringBitmap> servings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void rebuild(Map<UUID, Facets> facetsByRecipe) {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            recipeIds.clear();
+            categories.clear();
+            servings.clear();
+            facetsByRecipe.forEach(this::put);
+            categories.values().forEach(RoaringBitmap::runOptimize);
+            servings.values().forEach(RoaringBitmap::runOptimize);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * <p>Replaces the category and servings indexed for the recipe</p>
+     */
+    public void index(UUID recipeId, Facets facets) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(recipeId);
+            if (ordinal != null) {
+                clear(ordinal);
+            }
+            put(recipeId, facets);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID recipeId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(recipeId);
+            if (ordinal != null) {
+                clear(ordinal);
+                recipeIds.set(ordinal, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * <p>Recipes of the category, as a bitmap the caller is free to modify</p>
+     */
+    public RoaringBitmap withCategory(CategoryType category) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap bitmap = categories.get(category);
+            return bitmap == null ? new RoaringBitmap() : bitmap.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * <p>Recipes serving the given number of people, as a bitmap the caller is free to modify</p>
+     */
+    public RoaringBitmap withServings(int numberOfServings) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap bitmap = servings.get(numberOfServings);
+            return bitmap == null ? new RoaringBitmap() : bitmap.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * <p>Bitmap of the given recipes, leaving out those not indexed</p>
+     */
+    public RoaringBitmap toBitmap(Collection<UUID> ids) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap bitmap = new RoaringBitmap();
+            ids.forEach(id -> {
+                Integer ordinal = ordinals.get(id);
+                if (ordinal != null) {
+                    bitmap.add(ordinal);
+                }
+            });
+            return bitmap;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<UUID> toIds(RoaringBitmap bitmap) {
+        lock.readLock().lock();
+        try {
+            List<UUID> ids = new ArrayList<>(bitmap.getCardinality());
+            bitmap.forEach((int ordinal) -> {
+                UUID id = ordinal < recipeIds.size() ? recipeIds.get(ordinal) : null;
+                if (id != null) {
+                    ids.add(id);
+                }
+            });
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(UUID recipeId, Facets facets) {
+        Integer ordinal = ordinals.get(recipeId);
+        if (ordinal == null) {
+            ordinal = recipeIds.size();
+            ordinals.put(recipeId, ordinal);
+            recipeIds.add(recipeId);
+        }
+        if (facets.category() != null) {
+            categories.computeIfAbsent(facets.category(), k -> new RoaringBitmap()).add(ordinal);
+        }
+        if (facets.servings() != null) {
+            servings.computeIfAbsent(facets.servings(), k -> new RoaringBitmap()).add(ordinal);
+        }
+    }
+
+    private void clear(int ordinal) {
+        categories.values().forEach(bitmap -> bitmap.remove(ordinal));
+        servings.values().removeIf(bitmap -> {
+            bitmap.remove(ordinal);
+            return bitmap.isEmpty();
+        });
+    }
+
+    /**
+     * <p>Filterable attributes of a recipe</p>
+     */
+    public record Facets(CategoryType category, Integer servings) {
+    }
+}
@@ -0,0 +1,227 @@
+package com.km.recipe.search;
+
+import com.km.recipe.domain.RecipeChangedEvent;
+import com.km.recipe.domain.repository.IngredientRepository;
+import com.km.recipe.domain.repository.IngredientRepository.IngredientDescription;
+import com.km.recipe.domain.repository.InstructionRepository;
+import com.km.recipe.domain.repository.InstructionRepository.InstructionDescription;
+import com.km.recipe.domain.repository.RecipeRepository;
+import com.km.recipe.domain.repository.RecipeRepository.RecipeHeader;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * <p>Builds the {@link IngredientIndex}, the {@link InstructionIndex}, the {@link RecipeSearchIndex}, the
+ * {@link SuggestionIndex} and the {@link RecipeBitmapIndex} on startup and keeps them in step with committed recipe
+ * changes. The changes of a transaction are applied together once it commits, so that a transaction writing many
+ * recipes re-reads their texts with a few statements rather than one per recipe.</p>
+ */
+@Component
+public class RecipeIndexUpdater {
+
+    private static final int RELOAD_CHUNK_SIZE = 1000;
+
+    private final RecipeRepository recipeRepository;
+    private final IngredientRepository ingredientRepository;
+    private final InstructionRepository instructionRepository;
+    private final IngredientIndex ingredientIndex;
+    private final InstructionIndex instructionIndex;
+    private final RecipeSearchIndex searchIndex;
+    private final SuggestionIndex suggestionIndex;
+    private final RecipeBitmapIndex bitmapIndex;
+    private final TransactionTemplate readTransaction;
+
+    public RecipeIndexUpdater(RecipeRepository recipeRepository, IngredientRepository ingredientRepository,
+                              InstructionRepository instructionRepository, IngredientIndex ingredientIndex,
+                              InstructionIndex instructionIndex, RecipeSearchIndex searchIndex,
+                              SuggestionIndex suggestionIndex, RecipeBitmapIndex bitmapIndex,
+                              PlatformTransactionManager transactionManager) {
+        this.recipeRepository = recipeRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.instructionRepository = instructionRepository;
+        this.ingredientIndex = ingredientIndex;
+        this.instructionIndex = instructionIndex;
+        this.searchIndex = searchIndex;
+        this.suggestionIndex = suggestionIndex;
+        this.bitmapIndex = bitmapIndex;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        RecipeTexts texts = new RecipeTexts(List.of());
+        readTransaction.executeWithoutResult(status -> texts.add(recipeRepository.findAllHeaders(),
+                ingredientRepository.findAllDescriptions(), instructionRepository.findAllDescriptions()));
+        ingredientIndex.rebuild(texts.ingredients);
+        instructionIndex.rebuild(texts.instructions);
+        searchIndex.rebuild(texts.searchTexts());
+        suggestionIndex.rebuild(texts.names(), texts.ingredientDescriptions());
+        bitmapIndex.rebuild(texts.facets());
+    }
+
+    @EventListener
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(Map.of(event.recipeId(), event.type()));
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.changes.put(event.recipeId(), event.type());
+    }
+
+    /**
+     * <p>Re-reads the committed texts of the saved recipes in a transaction of its own, the one that published
+     * the events being already committed</p>
+     */
+    private void apply(Map<UUID, RecipeChangedEvent.Type> changes) {
+        List<UUID> saved = new ArrayList<>();
+        changes.forEach((recipeId, type) -> {
+            if (type == RecipeChangedEvent.Type.REMOVED) {
+                ingredientIndex.remove(recipeId);
+                instructionIndex.remove(recipeId);
+                searchIndex.remove(recipeId);
+                suggestionIndex.remove(recipeId);
+                bitmapIndex.remove(recipeId);
+            } else {
+                saved.add(recipeId);
+            }
+        });
+        if (saved.isEmpty()) {
+            return;
+        }
+
+        RecipeTexts texts = new RecipeTexts(saved);
+        readTransaction.executeWithoutResult(status -> {
+            for (int from = 0; from < saved.size(); from += RELOAD_CHUNK_SIZE) {
+                List<UUID> chunk = saved.subList(from, Math.min(from + RELOAD_CHUNK_SIZE, saved.size()));
+                texts.add(recipeRepository.findHeadersByIdIn(chunk),
+                        ingredientRepository.findDescriptionsByRecipeIdIn(chunk),
+                        instructionRepository.findDescriptionsByRecipeIdIn(chunk));
+            }
+        });
+        texts.ingredients.forEach(ingredientIndex::index);
+        texts.instructions.forEach(instructionIndex::index);
+        saved.forEach(recipeId -> {
+            RecipeSearchIndex.RecipeText text = texts.searchText(recipeId);
+            if (text == null) {
+                searchIndex.remove(recipeId);
+                suggestionIndex.remove(recipeId);
+                bitmapIndex.remove(recipeId);
+            } else {
+                searchIndex.index(recipeId, text);
+                suggestionIndex.index(recipeId, text.name(), texts.ingredients.get(recipeId).values());
+                bitmapIndex.index(recipeId, texts.facets(recipeId));
+            }
+        });
+    }
+
+    /**
+     * <p>Texts of the recipes as read from the database. Recipes reloaded after a change start out empty, so that
+     * whatever they no longer hold is evicted from the indexes.</p>
+     */
+    private static class RecipeTexts {
+
+        private final Map<UUID, RecipeHeader> headers = new HashMap<>();
+        private final Map<UUID, Map<UUID, String>> ingredients = new HashMap<>();
+        private final Map<UUID, List<String>> instructions = new HashMap<>();
+        private final Map<UUID, List<String>> detailedInstructions = new HashMap<>();
+
+        RecipeTexts(Collection<UUID> recipeIds) {
+            recipeIds.forEach(recipeId -> {
+                ingredients.put(recipeId, new HashMap<>());
+                instructions.put(recipeId, new ArrayList<>());
+            });
+        }
+
+        void add(List<RecipeHeader> recipes, List<IngredientDescription> ingredientRows,
+                 List<InstructionDescription> instructionRows) {
+            recipes.forEach(recipe -> headers.put(recipe.id(), recipe));
+            ingredientRows.forEach(ingredient -> ingredients
+                    .computeIfAbsent(ingredient.recipeId(), k -> new HashMap<>())
+                    .put(ingredient.id(), ingredient.description()));
+            instructionRows.forEach(instruction -> {
+                instructions.computeIfAbsent(instruction.recipeId(), k -> new ArrayList<>())
+                        .add(instruction.description());
+                if (instruction.detailedDescription() != null) {
+                    detailedInstructions.computeIfAbsent(instruction.recipeId(), k -> new ArrayList<>())
+                            .add(instruction.detailedDescription());
+                }
+            });
+        }
+
+        Map<UUID, String> names() {
+            Map<UUID, String> names = new HashMap<>();
+            headers.forEach((recipeId, header) -> names.put(recipeId, header.name()));
+            return names;
+        }
+
+        Map<UUID, RecipeBitmapIndex.Facets> facets() {
+            Map<UUID, RecipeBitmapIndex.Facets> facets = new HashMap<>();
+            headers.keySet().forEach(recipeId -> facets.put(recipeId, facets(recipeId)));
+            return facets;
+        }
+
+        RecipeBitmapIndex.Facets facets(UUID recipeId) {
+            RecipeHeader header = headers.get(recipeId);
+            return new RecipeBitmapIndex.Facets(header.categoryType(), header.servings());
+        }
+
+        Map<UUID, Collection<String>> ingredientDescriptions() {
+            Map<UUID, Collection<String>> descriptions = new HashMap<>();
+            ingredients.forEach((recipeId, values) -> descriptions.put(recipeId, values.values()));
+            return descriptions;
+        }
+
+        Map<UUID, RecipeSearchIndex.RecipeText> searchTexts() {
+            Map<UUID, RecipeSearchIndex.RecipeText> texts = new HashMap<>();
+            headers.keySet().forEach(recipeId -> texts.put(recipeId, searchText(recipeId)));
+            return texts;
+        }
+
+        /**
+         * <p>Searchable texts of the recipe, or {@code null} when the recipe no longer exists</p>
+         */
+        RecipeSearchIndex.RecipeText searchText(UUID recipeId) {
+            RecipeHeader header = headers.get(recipeId);
+            if (header == null) {
+                return null;
+            }
+            return new RecipeSearchIndex.RecipeText(header.name(), Stream.of(
+                            ingredients.getOrDefault(recipeId, Map.of()).values(),
+                            instructions.getOrDefault(recipeId, List.of()),
+                            detailedInstructions.getOrDefault(recipeId, List.of()))
+                    .flatMap(Collection::stream)
+                    .toList());
+        }
+    }
+
+    private class PendingChanges implements TransactionSynchronization {
+
+        // the last change of a recipe within the transaction is the one that holds
+        private final Map<UUID, RecipeChangedEvent.Type> changes = new LinkedHashMap<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResource(RecipeIndexUpdater.this);
+            if (status == STATUS_COMMITTED) {
+                apply(changes);
+            }
+        }
+    }
+}
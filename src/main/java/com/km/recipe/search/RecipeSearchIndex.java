@@ -0,0 +1,185 @@
+package com.km.recipe.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * <p>In-memory inverted index of the recipe texts: name, ingredient descriptions and instruction descriptions,
+ * ranked with Okapi BM25. Name terms weigh more than the other texts, as a term in the name says more about
+ * the recipe.</p>
+ * <p>Hits are ordered lazily: the scored recipes are heapified and popped best first, so that taking the top
+ * {@code k} costs {@code O(n + k log n)} rather than sorting every match.</p>
+ */
+@Component
+public class RecipeSearchIndex {
+
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    static final int NAME_WEIGHT = 3;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Map<String, Map<UUID, Integer>> postings = new HashMap<>();
+    private final Map<UUID, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long totalLength;
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void rebuild(Map<UUID, RecipeText> textsByRecipe) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+            textsByRecipe.forEach(this::put);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * <p>Replaces everything indexed for the recipe with the given texts</p>
+     */
+    public void index(UUID recipeId, RecipeText text) {
+        lock.writeLock().lock();
+        try {
+            evict(recipeId);
+            put(recipeId, text);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID recipeId) {
+        lock.writeLock().lock();
+        try {
+            evict(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * <p>Recipes matching any term of the query, best first. The scores are taken when called, later changes to
+     * the index do not affect the iteration.</p>
+     */
+    public Iterator<Hit> search(String query) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+
+        List<Hit> scored = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int count = documents.size();
+            double averageLength = count == 0 ? 0 : (double) totalLength / count;
+            Map<UUID, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<UUID, Integer> frequencies = postings.get(term);
+                if (frequencies == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (count - frequencies.size() + 0.5) / (frequencies.size() + 0.5));
+                frequencies.forEach((recipeId, frequency) -> {
+                    double norm = K1 * (1 - B + B * documents.get(recipeId).length() / averageLength);
+                    scores.merge(recipeId, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                });
+            }
+            scores.forEach((recipeId, score) -> scored.add(new Hit(recipeId, score)));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // heapifying the whole collection is linear, only the hits actually consumed pay for their ordering
+        PriorityQueue<Hit> ranked = new PriorityQueue<>(scored);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !ranked.isEmpty();
+            }
+
+            @Override
+            public Hit next() {
+                Hit hit = ranked.poll();
+                if (hit == null) {
+                    throw new NoSuchElementException();
+                }
+                return hit;
+            }
+        };
+    }
+
+    static List<String> tokenize(String value) {
+        if (value == null) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARATORS.split(IngredientIndex.normalize(value)))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private void put(UUID recipeId, RecipeText text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokenize(text.name()).forEach(term -> frequencies.merge(term, NAME_WEIGHT, Integer::sum));
+        text.texts().forEach(value -> tokenize(value).forEach(term -> frequencies.merge(term, 1, Integer::sum)));
+        if (frequencies.isEmpty()) {
+            return;
+        }
+
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(recipeId, entry.getValue());
+            length += entry.getValue();
+        }
+        documents.put(recipeId, new Document(frequencies.keySet().toArray(String[]::new), length));
+        totalLength += length;
+    }
+
+    private void evict(UUID recipeId) {
+        Document previous = documents.remove(recipeId);
+        if (previous == null) {
+            return;
+        }
+        totalLength -= previous.length();
+        for (String term : previous.terms()) {
+            Map<UUID, Integer> frequencies = postings.get(term);
+            if (frequencies != null) {
+                frequencies.remove(recipeId);
+                if (frequencies.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Searchable texts of a recipe: its name and the descriptions of its ingredients and instructions</p>
+     */
+    public record RecipeText(String name, Collection<String> texts) {
+    }
+
+    /**
+     * <p>Recipe matching a query, ordered by descending score</p>
+     */
+    public record Hit(UUID recipeId, double score) implements Comparable<Hit> {
+
+        @Override
+        public int compareTo(Hit other) {
+            int byScore = Double.compare(other.score, score);
+            return byScore != 0 ? byScore : recipeId.compareTo(other.recipeId);
+        }
+    }
+
+    private record Document(String[] terms, int length) {
+    }
+}
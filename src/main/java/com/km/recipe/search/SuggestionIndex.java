@@ -0,0 +1,118 @@
+package com.km.recipe.search;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>Prefix completions of the recipe names and ingredient descriptions, each held in a {@link RadixTree}. An entry
+ * weighs as many recipes as use it, so the most popular completions come first.</p>
+ */
+@Component
+public class SuggestionIndex {
+
+    /**
+     * <p>Text completed by the suggestions</p>
+     */
+    public enum Field {
+        NAME,
+        INGREDIENT
+    }
+
+    private final Map<UUID, String> names = new HashMap<>();
+    private final Map<UUID, Set<String>> ingredients = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private RadixTree nameTree = new RadixTree();
+    private RadixTree ingredientTree = new RadixTree();
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void rebuild(Map<UUID, String> namesByRecipe, Map<UUID, ? extends Collection<String>> ingredientsByRecipe) {
+        lock.writeLock().lock();
+        try {
+            names.clear();
+            ingredients.clear();
+            nameTree = new RadixTree();
+            ingredientTree = new RadixTree();
+            namesByRecipe.forEach((recipeId, name) -> {
+                Collection<String> descriptions = ingredientsByRecipe.get(recipeId);
+                put(recipeId, name, descriptions == null ? List.of() : descriptions);
+            });
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * <p>Replaces the name and ingredients counted for the recipe</p>
+     */
+    public void index(UUID recipeId, String name, Collection<String> ingredientDescriptions) {
+        lock.writeLock().lock();
+        try {
+            evict(recipeId);
+            put(recipeId, name, ingredientDescriptions);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID recipeId) {
+        lock.writeLock().lock();
+        try {
+            evict(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * <p>Most popular completions of the prefix in the field, ignoring case and repeated whitespace</p>
+     */
+    public List<RadixTree.Entry> suggest(Field field, String prefix, int limit) {
+        String key = key(prefix);
+        lock.readLock().lock();
+        try {
+            return (field == Field.NAME ? nameTree : ingredientTree).top(key, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String key(String value) {
+        return IngredientIndex.normalize(StringUtils.normalizeSpace(value));
+    }
+
+    private void put(UUID recipeId, String name, Collection<String> ingredientDescriptions) {
+        if (name != null) {
+            names.put(recipeId, name);
+            nameTree.add(key(name), StringUtils.normalizeSpace(name), 1);
+        }
+        // a recipe counts once per ingredient, however many times it lists it
+        Map<String, String> distinct = new HashMap<>();
+        ingredientDescriptions.stream()
+                .filter(StringUtils::isNotBlank)
+                .forEach(description -> distinct.putIfAbsent(key(description), StringUtils.normalizeSpace(description)));
+        if (!distinct.isEmpty()) {
+            ingredients.put(recipeId, distinct.keySet());
+            distinct.forEach((key, description) -> ingredientTree.add(key, description, 1));
+        }
+    }
+
+    private void evict(UUID recipeId) {
+        String name = names.remove(recipeId);
+        if (name != null) {
+            nameTree.add(key(name), name, -1);
+        }
+        Set<String> previous = ingredients.remove(recipeId);
+        if (previous != null) {
+            previous.forEach(key -> ingredientTree.add(key, null, -1));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.km.recipe.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>In-memory index from the trigrams of normalized descriptions to the ids of the recipes holding them.</p>
+ * <p>Every recipe with a description containing a term holds all the trigrams of the term, so the recipes holding
+ * them all are a superset of the {@code LIKE '%term%'} matches: the index narrows the candidates, an exact
+ * predicate confirms them. Terms shorter than a trigram cannot be narrowed down.</p>
+ */
+public class TrigramIndex {
+
+    static final int GRAM_LENGTH = 3;
+
+    private final Map<String, Set<UUID>> postings = new HashMap<>();
+    private final Map<String, String> canonicals = new HashMap<>();
+    private final Map<UUID, String[]> trigramsByRecipe = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void rebuild(Map<UUID, ? extends Collection<String>> descriptionsByRecipe) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            canonicals.clear();
+            trigramsByRecipe.clear();
+            descriptionsByRecipe.forEach(this::put);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * <p>Replaces everything indexed for the recipe with the given descriptions</p>
+     */
+    public void index(UUID recipeId, Collection<String> descriptions) {
+        lock.writeLock().lock();
+        try {
+            evict(recipeId);
+            put(recipeId, descriptions);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID recipeId) {
+        lock.writeLock().lock();
+        try {
+            evict(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * <p>Ids of the recipes holding every trigram of the term, or nothing when the term is too short to have any</p>
+     */
+    public Optional<Set<UUID>> findCandidates(String term) {
+        Set<String> trigrams = trigrams(IngredientIndex.normalize(term));
+        if (trigrams.isEmpty()) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            // intersecting from the rarest trigram keeps the working set as small as it gets
+            List<Set<UUID>> matches = trigrams.stream()
+                    .map(trigram -> postings.getOrDefault(trigram, Set.of()))
+                    .sorted(Comparator.comparingInt(Set::size))
+                    .toList();
+            Set<UUID> candidates = new HashSet<>(matches.get(0));
+            for (int i = 1; i < matches.size() && !candidates.isEmpty(); i++) {
+                candidates.retainAll(matches.get(i));
+            }
+            return Optional.of(candidates);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static Set<String> trigrams(String normalized) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+            trigrams.add(normalized.substring(i, i + GRAM_LENGTH));
+        }
+        return trigrams;
+    }
+
+    private void put(UUID recipeId, Collection<String> descriptions) {
+        Set<String> trigrams = new HashSet<>();
+        descriptions.forEach(description -> trigrams.addAll(trigrams(IngredientIndex.normalize(description))));
+        if (trigrams.isEmpty()) {
+            return;
+        }
+        // the recipe keeps the posting keys themselves, rather than copies of every trigram
+        String[] keys = new String[trigrams.size()];
+        int i = 0;
+        for (String trigram : trigrams) {
+            postings.computeIfAbsent(trigram, k -> new HashSet<>()).add(recipeId);
+            keys[i++] = canonical(trigram);
+        }
+        trigramsByRecipe.put(recipeId, keys);
+    }
+
+    private String canonical(String trigram) {
+        return canonicals.computeIfAbsent(trigram, k -> k);
+    }
+
+    private void evict(UUID recipeId) {
+        String[] previous = trigramsByRecipe.remove(recipeId);
+        if (previous == null) {
+            return;
+        }
+        for (String trigram : previous) {
+            Set<UUID> recipeIds = postings.get(trigram);
+            if (recipeIds != null) {
+                recipeIds.remove(recipeId);
+                if (recipeIds.isEmpty()) {
+                    postings.remove(trigram);
+                    canonicals.remove(trigram);
+                }
+            }
+        }
+    }
+}
@@ -3,33 +3,108 @@ package com.km.recipe.service.contract;
 import com.km.recipe.domain.Recipe;
 import com.km.recipe.dto.*;
 import com.km.recipe.dto.page.RecipePage;
+import com.km.recipe.util.RecipeCursor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface RecipeService {
 
     RecipeDTO create(CreateRecipeDTO dto);
 
+    /**
+     * <p>Creates the recipes whose names are neither taken nor repeated earlier in the list, returning one result
+     * per recipe in request order</p>
+     */
+    List<RecipeBatchResultDTO> createAll(List<CreateRecipeDTO> dtos);
+
+    /**
+     * <p>Same as {@link #createAll(List)} for recipes already mapped and validated by the caller</p>
+     */
+    List<RecipeBatchResultDTO> insertAll(List<Recipe> recipes);
+
     RecipeDTO update(UUID recipieId, UpdateRecipeDTO dto);
 
+    /**
+     * <p>Applies the change only while the recipe is still at the expected version, a {@code null} version
+     * applying it unconditionally like every other mutator taking one</p>
+     */
+    RecipeDTO update(UUID recipeId, UpdateRecipeDTO dto, Long expectedVersion);
+
     RecipeDTO findById(UUID recipeId);
 
+    /**
+     * <p>Recipes with the given ids, keyed by id; unknown ids are left out</p>
+     */
+    Map<UUID, RecipeDTO> findAllById(Collection<UUID> recipeIds);
+
+    long findVersion(UUID recipeId);
+
     RecipePage findAll(Specification<Recipe> specification, Pageable pageable);
 
+    RecipePage findAll(Specification<Recipe> specification, String filterKey, Pageable pageable);
+
+    /**
+     * <p>Same as {@link #findAll(Specification, String, Pageable)}, the recipes being read without their ingredients
+     * and instructions unless asked otherwise, which is enough to tag the page</p>
+     */
+    RecipePage findAll(Specification<Recipe> specification, String filterKey, Pageable pageable,
+                       boolean withCollections);
+
+    RecipePage findSlice(Specification<Recipe> specification, Pageable pageable);
+
+    RecipePage findSlice(Specification<Recipe> specification, Pageable pageable, boolean withCollections);
+
+    /**
+     * <p>Hands every recipe matching the specification over to the consumer, batch by batch, in creation order</p>
+     */
+    void export(Specification<Recipe> specification, Consumer<List<RecipeDTO>> consumer);
+
+    RecipePage findAll(Specification<Recipe> specification, RecipeCursor cursor, int pageSize);
+
+    RecipePage findAll(Specification<Recipe> specification, RecipeCursor cursor, int pageSize,
+                       boolean withCollections);
+
+    /**
+     * <p>Same page, its recipes holding their ingredients and instructions, read with two statements</p>
+     */
+    RecipePage withCollections(RecipePage page);
+
+    /**
+     * <p>Best {@code limit} recipes for the query among those matching the filters, ranked by relevance</p>
+     */
+    List<RecipeSearchHitDTO> search(String query, Specification<Recipe> filters, int limit);
+
     void delete(UUID recipeId);
 
+    void delete(UUID recipeId, Long expectedVersion);
+
     void deleteInstructions(UUID recipeId, List<UUID> instructionIds);
 
+    void deleteInstructions(UUID recipeId, List<UUID> instructionIds, Long expectedVersion);
+
     void deleteIngredients(UUID recipeId, List<UUID> ingredientIds);
 
+    void deleteIngredients(UUID recipeId, List<UUID> ingredientIds, Long expectedVersion);
+
     RecipeDTO updateIngredients(UUID recipeId, List<IngredientDTO> ingredients);
 
+    RecipeDTO updateIngredients(UUID recipeId, List<IngredientDTO> ingredients, Long expectedVersion);
+
     RecipeDTO addIngredients(UUID recipeId, List<IngredientDTO> ingredients);
 
+    RecipeDTO addIngredients(UUID recipeId, List<IngredientDTO> ingredients, Long expectedVersion);
+
     RecipeDTO updateInstructions(UUID recipeId, List<InstructionDTO> instructions);
 
+    RecipeDTO updateInstructions(UUID recipeId, List<InstructionDTO> instructions, Long expectedVersion);
+
     RecipeDTO addInstructions(UUID recipeId, List<InstructionDTO> instructions);
+
+    RecipeDTO addInstructions(UUID recipeId, List<InstructionDTO> instructions, Long expectedVersion);
 }
@@ -1,29 +1,56 @@
 package com.km.recipe.service.impl;
 
+import com.km.recipe.cache.RecipeCacheEvictor;
+import com.km.recipe.cache.RecipeCountCache;
+import com.km.recipe.cache.RecipeEntityCache;
+import com.km.recipe.cache.RecipeLoadCoalescer;
 import com.km.recipe.domain.Ingredient;
 import com.km.recipe.domain.Instruction;
 import com.km.recipe.domain.Recipe;
+import com.km.recipe.domain.RecipeChangedEvent;
+import com.km.recipe.domain.repository.IngredientRepository;
+import com.km.recipe.domain.repository.InstructionRepository;
+import com.km.recipe.domain.repository.RecipeBatchRepository;
+import com.km.recipe.domain.repository.RecipeReadRepository;
 import com.km.recipe.domain.repository.RecipeRepository;
 import com.km.recipe.dto.*;
 import com.km.recipe.dto.page.RecipePage;
 import com.km.recipe.exceptions.InvalidCreationRequestException;
 import com.km.recipe.exceptions.InvalidRequestException;
 import com.km.recipe.exceptions.RecipeNotFoundException;
+import com.km.recipe.exceptions.RecipePreconditionFailedException;
 import com.km.recipe.exceptions.RecipeViolationException;
 import com.km.recipe.mappers.IngredientMapper;
 import com.km.recipe.mappers.InstructionMapper;
 import com.km.recipe.mappers.RecipeMapper;
+import com.km.recipe.search.RecipeSearchIndex;
 import com.km.recipe.service.contract.RecipeService;
+import com.km.recipe.util.RecipeCursor;
+import com.km.recipe.util.RecipeSpecificationBuilder;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,95 +58,376 @@ import java.util.stream.Collectors;
 @Transactional(propagation = Propagation.REQUIRED)
 public class RecipeServiceImpl implements RecipeService {
 
+    private static final int SEARCH_BATCH_SIZE = 100;
+
     private final RecipeRepository repository;
+    private final IngredientRepository ingredientRepository;
+    private final InstructionRepository instructionRepository;
+    private final RecipeReadRepository readRepository;
+    private final RecipeBatchRepository batchRepository;
     private final RecipeMapper recipeMapper;
     private final IngredientMapper ingredientMapper;
     private final InstructionMapper instructionMapper;
+    private final RecipeCountCache countCache;
+    private final RecipeCacheEvictor cacheEvictor;
+    private final RecipeEntityCache entityCache;
+    private final RecipeLoadCoalescer loadCoalescer;
+    private final RecipeSearchIndex searchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
 
+    /**
+     * <p>Inserts straight away and lets the unique constraint on the name key reject a taken name, rather than
+     * looking the name up first, as {@link #update(UUID, UpdateRecipeDTO, Long)} does.</p>
+     */
     @Override
     public RecipeDTO create(CreateRecipeDTO dto) {
-        if (repository.existsByName(dto.getName())) {
+        Recipe entity = recipeMapper.toEntity(dto);
+        // an invalid recipe is rejected by bean validation before it reaches the constraint, yet a taken name has
+        // always been reported as a conflict ahead of any validation error: only then is the name looked up
+        if (!validator.validate(entity).isEmpty() && repository.existsByName(dto.getName())) {
             throw new RecipeViolationException(dto.getName());
         }
 
         try {
-            Recipe entity = recipeMapper.toEntity(dto);
-            entity = repository.save(entity);
+            entity = repository.saveAndFlush(entity);
             return recipeMapper.toDto(entity);
         } catch (DataIntegrityViolationException ex) {
-            throw new RecipeViolationException(dto.getName());
+            if (isNameConflict(ex)) {
+                throw new RecipeViolationException(dto.getName());
+            }
+            throw ex;
         }
     }
 
     @Override
-    public RecipeDTO update(UUID recipeId, UpdateRecipeDTO dto) {
-        if (repository.existsByNameWithDifferentId(dto.getName(), recipeId)) {
-            throw new RecipeViolationException(dto.getName());
+    public List<RecipeBatchResultDTO> createAll(List<CreateRecipeDTO> dtos) {
+        List<Recipe> recipes = dtos.stream().map(recipeMapper::toEntity).toList();
+        for (int i = 0; i < recipes.size(); i++) {
+            Set<ConstraintViolation<Recipe>> violations = validator.validate(recipes.get(i));
+            if (!violations.isEmpty()) {
+                throw new InvalidCreationRequestException(String.format("Invalid recipe at index: %d, %s", i,
+                        violations.stream()
+                                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                                .sorted()
+                                .collect(Collectors.joining(", "))));
+            }
         }
+        return insertAll(recipes);
+    }
 
-        Recipe recipe = findRecipeById(recipeId);
+    /**
+     * <p>Checks every name with a single query, then inserts the accepted recipes, their ingredients and
+     * instructions in JDBC batches. A name taken concurrently fails the whole batch on the unique constraint.</p>
+     */
+    @Override
+    public List<RecipeBatchResultDTO> insertAll(List<Recipe> recipes) {
+        Set<String> nameKeys = new HashSet<>(repository.findExistingNameKeys(recipes.stream()
+                .map(recipe -> Recipe.nameKey(recipe.getName()))
+                .collect(Collectors.toSet())));
+        // a name repeated within the batch conflicts with its first occurrence
+        List<Recipe> accepted = recipes.stream()
+                .filter(recipe -> nameKeys.add(Recipe.nameKey(recipe.getName())))
+                .toList();
+
+        try {
+            batchRepository.insertAll(accepted);
+        } catch (DuplicateKeyException ex) {
+            throw new RecipeViolationException(accepted.stream().map(Recipe::getName).collect(Collectors.joining(", ")));
+        }
+        cacheEvictor.evictNameQueries();
+        accepted.forEach(recipe -> eventPublisher.publishEvent(
+                new RecipeChangedEvent(recipe.getId(), RecipeChangedEvent.Type.SAVED)));
+
+        List<RecipeBatchResultDTO> results = new ArrayList<>(recipes.size());
+        for (Recipe recipe : recipes) {
+            // rejected recipes were never normalized, so they keep the name they were sent with
+            results.add(recipe.getId() == null
+                    ? RecipeBatchResultDTO.builder()
+                            .name(recipe.getName())
+                            .status(RecipeBatchResultDTO.Status.CONFLICT)
+                            .build()
+                    : RecipeBatchResultDTO.builder()
+                            .name(recipe.getName())
+                            .status(RecipeBatchResultDTO.Status.CREATED)
+                            .id(recipe.getId())
+                            .build());
+        }
+        return results;
+    }
+
+    @Override
+    public RecipeDTO update(UUID recipeId, UpdateRecipeDTO dto) {
+        return update(recipeId, dto, null);
+    }
+
+    /**
+     * <p>Lets the unique constraint on the name key reject a name taken by another recipe, as
+     * {@link #create(CreateRecipeDTO)} does</p>
+     */
+    @Override
+    public RecipeDTO update(UUID recipeId, UpdateRecipeDTO dto, Long expectedVersion) {
+        Recipe recipe = findRecipeById(recipeId, expectedVersion);
 
         Recipe updatedRecipe = recipeMapper.updateRecipe(recipe, dto);
-        updatedRecipe = repository.save(updatedRecipe);
+        try {
+            updatedRecipe = save(updatedRecipe, expectedVersion);
+        } catch (DataIntegrityViolationException ex) {
+            if (isNameConflict(ex)) {
+                throw new RecipeViolationException(dto.getName());
+            }
+            throw ex;
+        }
         return recipeMapper.toDto(updatedRecipe);
     }
 
-    @Transactional(propagation = Propagation.SUPPORTS)
+    /**
+     * <p>Goes through the entity rather than the read model, so that repeated lookups of a recipe are served
+     * from the second-level cache. Concurrent lookups of a same recipe share a single load.</p>
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     @Override
     public RecipeDTO findById(UUID recipeId) {
-        Recipe recipe = findRecipeById(recipeId);
-        return recipeMapper.toDto(recipe);
+        return loadCoalescer.findById(recipeId, () -> recipeMapper.toDto(findRecipeById(recipeId)));
+    }
+
+    /**
+     * <p>Recipes held by the second-level cache are served from it, the others are read through the read model
+     * with one statement for the recipes and one per collection, whatever their number</p>
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Override
+    public Map<UUID, RecipeDTO> findAllById(Collection<UUID> recipeIds) {
+        Map<UUID, RecipeDTO> recipes = new HashMap<>();
+        Set<UUID> uncached = new HashSet<>();
+        for (UUID recipeId : new HashSet<>(recipeIds)) {
+            if (entityCache.contains(recipeId)) {
+                repository.findById(recipeId).ifPresent(recipe -> recipes.put(recipeId, recipeMapper.toDto(recipe)));
+            } else {
+                uncached.add(recipeId);
+            }
+        }
+        readRepository.findAllById(uncached).forEach(recipe -> recipes.put(recipe.getId(), recipe));
+        return recipes;
     }
 
-    @Transactional(propagation = Propagation.SUPPORTS)
+    /**
+     * <p>Reads the version column alone, without loading the recipe's collections</p>
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Override
+    public long findVersion(UUID recipeId) {
+        return repository.findVersionById(recipeId).orElseThrow(() -> new RecipeNotFoundException(recipeId));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     @Override
     public RecipePage findAll(Specification<Recipe> specification, Pageable pageable) {
-        Page<Recipe> recipePage = repository.findAll(specification, pageable);
+        Slice<RecipeDTO> slice = readRepository.findSlice(specification, pageable);
+        Page<RecipeDTO> recipePage = PageableExecutionUtils.getPage(slice.getContent(), pageable,
+                () -> repository.count(specification));
         return RecipePage.toPage(recipePage);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Override
+    public RecipePage findAll(Specification<Recipe> specification, String filterKey, Pageable pageable) {
+        return findAll(specification, filterKey, pageable, true);
+    }
+
+    /**
+     * <p>Concurrent loads of a same page share the page read without collections, each caller reading the
+     * collections of its own copy</p>
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Override
+    public RecipePage findAll(Specification<Recipe> specification, String filterKey, Pageable pageable,
+                              boolean withCollections) {
+        RecipePage page = loadCoalescer.findAll(filterKey, pageable, () -> {
+            Slice<RecipeDTO> slice = readRepository.findSlice(specification, pageable, false);
+            Page<RecipeDTO> recipePage = PageableExecutionUtils.getPage(slice.getContent(), pageable,
+                    () -> countCache.get(filterKey, () -> repository.count(specification)));
+            return RecipePage.toPage(recipePage);
+        });
+        return withCollections ? withCollections(page) : page;
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Override
+    public RecipePage findSlice(Specification<Recipe> specification, Pageable pageable) {
+        return findSlice(specification, pageable, true);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Override
+    public RecipePage findSlice(Specification<Recipe> specification, Pageable pageable, boolean withCollections) {
+        Slice<RecipeDTO> slice = readRepository.findSlice(specification, pageable, withCollections);
+        return RecipePage.toSlicePage(slice);
+    }
+
+    /**
+     * <p>Read-only, so that the cursor is held by a transaction without any flush at its end</p>
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void export(Specification<Recipe> specification, Consumer<List<RecipeDTO>> consumer) {
+        readRepository.scroll(specification, consumer);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Override
+    public RecipePage findAll(Specification<Recipe> specification, RecipeCursor cursor, int pageSize) {
+        return findAll(specification, cursor, pageSize, true);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Override
+    public RecipePage findAll(Specification<Recipe> specification, RecipeCursor cursor, int pageSize,
+                              boolean withCollections) {
+        Specification<Recipe> keyset = specification.and(new RecipeSpecificationBuilder().withCursor(cursor).build());
+        Slice<RecipeDTO> slice = readRepository.findSlice(keyset, PageRequest.of(0, pageSize, RecipeCursor.SORT),
+                withCollections);
+
+        String nextCursor = slice.hasNext()
+                ? RecipeCursor.of(slice.getContent().get(slice.getNumberOfElements() - 1)).encode()
+                : null;
+        return RecipePage.toCursorPage(slice, cursor == null, nextCursor);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Override
+    public RecipePage withCollections(RecipePage page) {
+        return page.withContent(readRepository.withCollections(List.copyOf(page.getContent())));
+    }
+
+    /**
+     * <p>Walks the hits best first and checks the filters of a batch of them at a time with a lookup by id, stopping
+     * as soon as the limit is reached, so that most of the matches are never ranked nor read</p>
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @Override
+    public List<RecipeSearchHitDTO> search(String query, Specification<Recipe> filters, int limit) {
+        Iterator<RecipeSearchIndex.Hit> hits = searchIndex.search(query);
+        List<RecipeSearchIndex.Hit> ranked = new ArrayList<>(limit);
+        while (ranked.size() < limit && hits.hasNext()) {
+            Map<UUID, RecipeSearchIndex.Hit> batch = new LinkedHashMap<>();
+            while (batch.size() < SEARCH_BATCH_SIZE && hits.hasNext()) {
+                RecipeSearchIndex.Hit hit = hits.next();
+                batch.put(hit.recipeId(), hit);
+            }
+            Set<UUID> matching = readRepository.findIds(filters.and(new RecipeSpecificationBuilder()
+                    .withRecipeIds(batch.keySet())
+                    .build()));
+            batch.values().stream()
+                    .filter(hit -> matching.contains(hit.recipeId()))
+                    .limit(limit - ranked.size())
+                    .forEach(ranked::add);
+        }
+
+        Map<UUID, RecipeDTO> recipes = new HashMap<>();
+        readRepository.findAllById(ranked.stream().map(RecipeSearchIndex.Hit::recipeId).toList())
+                .forEach(recipe -> recipes.put(recipe.getId(), recipe));
+        return ranked.stream()
+                .filter(hit -> recipes.containsKey(hit.recipeId()))
+                .map(hit -> RecipeSearchHitDTO.builder()
+                        .score(hit.score())
+                        .recipe(recipes.get(hit.recipeId()))
+                        .build())
+                .toList();
+    }
+
     @Override
     public void delete(UUID recipeId) {
+        delete(recipeId, null);
+    }
+
+    @Override
+    public void delete(UUID recipeId, Long expectedVersion) {
+        if (expectedVersion != null) {
+            checkVersion(recipeId, expectedVersion, () -> new InvalidRequestException(
+                    String.format("Cannot remove recipe with id: %s", recipeId)));
+        }
         Recipe recipe = repository.findById(recipeId)
                 .orElseThrow(() -> new InvalidRequestException(String.format("Cannot remove recipe with id: %s", recipeId)));
+        checkVersion(recipe, expectedVersion);
         repository.delete(recipe);
+        flush(recipe, expectedVersion);
     }
 
     @Override
     public void deleteInstructions(UUID recipeId, List<UUID> instructionIds) {
-        Recipe recipe = findRecipeById(recipeId);
-        recipe.getInstructions().removeIf(instruction -> instructionIds.contains(instruction.getId()));
-        repository.save(recipe);
+        deleteInstructions(recipeId, instructionIds, null);
+    }
+
+    @Override
+    public void deleteInstructions(UUID recipeId, List<UUID> instructionIds, Long expectedVersion) {
+        incrementVersion(recipeId, expectedVersion);
+        if (!instructionIds.isEmpty()) {
+            // the statement skips the entity's validation, which requires at least one instruction
+            if (instructionRepository.countByRecipeIdAndIdNotIn(recipeId, instructionIds) == 0) {
+                throw new InvalidRequestException(String.format(
+                        "Cannot remove every instruction of recipe with id: %s", recipeId));
+            }
+            instructionRepository.deleteAllByRecipeIdAndIdsIn(recipeId, instructionIds);
+        }
+        cacheEvictor.evictInstructions(recipeId, instructionIds);
+        eventPublisher.publishEvent(new RecipeChangedEvent(recipeId, RecipeChangedEvent.Type.SAVED));
     }
 
     @Override
     public void deleteIngredients(UUID recipeId, List<UUID> ingredientIds) {
-        Recipe recipe = findRecipeById(recipeId);
-        recipe.getIngredients().removeIf(ingredient -> ingredientIds.contains(ingredient.getId()));
-        repository.save(recipe);
+        deleteIngredients(recipeId, ingredientIds, null);
+    }
+
+    @Override
+    public void deleteIngredients(UUID recipeId, List<UUID> ingredientIds, Long expectedVersion) {
+        incrementVersion(recipeId, expectedVersion);
+        if (!ingredientIds.isEmpty()) {
+            // the statement skips the entity's validation, which requires at least one ingredient
+            if (ingredientRepository.countByRecipeIdAndIdNotIn(recipeId, ingredientIds) == 0) {
+                throw new InvalidRequestException(String.format(
+                        "Cannot remove every ingredient of recipe with id: %s", recipeId));
+            }
+            ingredientRepository.deleteAllByRecipeIdAndIdsIn(recipeId, ingredientIds);
+        }
+        cacheEvictor.evictIngredients(recipeId, ingredientIds);
+        eventPublisher.publishEvent(new RecipeChangedEvent(recipeId, RecipeChangedEvent.Type.SAVED));
     }
 
     @Override
     public RecipeDTO updateIngredients(UUID recipeId, List<IngredientDTO> dtos) {
-        Recipe recipe = findRecipeById(recipeId);
+        return updateIngredients(recipeId, dtos, null);
+    }
+
+    @Override
+    public RecipeDTO updateIngredients(UUID recipeId, List<IngredientDTO> dtos, Long expectedVersion) {
+        incrementVersion(recipeId, expectedVersion);
 
         Map<UUID, IngredientDTO> collect = dtos.stream()
                 .collect(Collectors.toMap(IngredientDTO::getId, dto -> dto));
 
-        recipe.getIngredients().forEach(ingredient -> {
-            IngredientDTO dto = collect.get(ingredient.getId());
-            if (null != dto) {
-                ingredient.setDescription(dto.getDescription());
-            }
-        });
+        Set<Ingredient> ingredients = collect.isEmpty()
+                ? Set.of()
+                : ingredientRepository.findAllByRecipeIdAndIdsIn(recipeId, collect.keySet());
+        ingredients.forEach(ingredient -> ingredient.setDescription(collect.get(ingredient.getId()).getDescription()));
+        ingredientRepository.flush();
+        cacheEvictor.evictIngredients(recipeId, collect.keySet());
+        eventPublisher.publishEvent(new RecipeChangedEvent(recipeId, RecipeChangedEvent.Type.SAVED));
 
-        recipe = repository.save(recipe);
-        return recipeMapper.toDto(recipe);
+        RecipeDTO recipe = findWrittenRecipe(recipeId);
+        recipe.setIngredients(replace(recipe.getIngredients(), ingredientMapper.toDto(ingredients),
+                IngredientDTO::getId, Comparator.naturalOrder()));
+        return recipe;
     }
 
     @Override
     public RecipeDTO addIngredients(UUID recipeId, List<IngredientDTO> dtos) {
-        Recipe recipe = findRecipeById(recipeId);
+        return addIngredients(recipeId, dtos, null);
+    }
+
+    @Override
+    public RecipeDTO addIngredients(UUID recipeId, List<IngredientDTO> dtos, Long expectedVersion) {
+        Recipe recipe = findRecipeById(recipeId, expectedVersion);
         boolean anyMatchWithId = dtos.stream().anyMatch(dto -> Objects.nonNull(dto.getId()));
 
         if (anyMatchWithId) {
@@ -131,29 +439,44 @@ public class RecipeServiceImpl implements RecipeService {
                 .collect(Collectors.toSet());
 
         recipe.getIngredients().addAll(ingredients);
-        recipe = repository.save(recipe);
+        recipe = save(recipe, expectedVersion);
         return recipeMapper.toDto(recipe);
     }
 
     @Override
     public RecipeDTO updateInstructions(UUID recipeId, List<InstructionDTO> dtos) {
-        Recipe recipe = findRecipeById(recipeId);
+        return updateInstructions(recipeId, dtos, null);
+    }
+
+    @Override
+    public RecipeDTO updateInstructions(UUID recipeId, List<InstructionDTO> dtos, Long expectedVersion) {
+        incrementVersion(recipeId, expectedVersion);
 
         Map<UUID, InstructionDTO> map = dtos.stream()
                 .collect(Collectors.toMap(InstructionDTO::getId, dto -> dto));
 
-        recipe.getInstructions().forEach(instruction -> {
-            InstructionDTO dto = map.get(instruction.getId());
-            instructionMapper.update(dto, instruction);
-        });
+        Set<Instruction> instructions = map.isEmpty()
+                ? Set.of()
+                : instructionRepository.findAllByRecipeIdAndIdsIn(recipeId, map.keySet());
+        instructions.forEach(instruction -> instructionMapper.update(map.get(instruction.getId()), instruction));
+        instructionRepository.flush();
+        cacheEvictor.evictInstructions(recipeId, map.keySet());
+        eventPublisher.publishEvent(new RecipeChangedEvent(recipeId, RecipeChangedEvent.Type.SAVED));
 
-        recipe = repository.save(recipe);
-        return recipeMapper.toDto(recipe);
+        RecipeDTO recipe = findWrittenRecipe(recipeId);
+        recipe.setInstructions(replace(recipe.getInstructions(), instructionMapper.toDto(instructions),
+                InstructionDTO::getId, Comparator.comparing(InstructionDTO::getStep)));
+        return recipe;
     }
 
     @Override
     public RecipeDTO addInstructions(UUID recipeId, List<InstructionDTO> dtos) {
-        Recipe recipe = findRecipeById(recipeId);
+        return addInstructions(recipeId, dtos, null);
+    }
+
+    @Override
+    public RecipeDTO addInstructions(UUID recipeId, List<InstructionDTO> dtos, Long expectedVersion) {
+        Recipe recipe = findRecipeById(recipeId, expectedVersion);
         boolean anyMatchWithId = dtos.stream().anyMatch(dto -> Objects.nonNull(dto.getId()));
 
         if (anyMatchWithId) {
@@ -165,11 +488,98 @@ public class RecipeServiceImpl implements RecipeService {
                 .collect(Collectors.toSet());
 
         recipe.getInstructions().addAll(instructions);
-        recipe = repository.save(recipe);
+        recipe = save(recipe, expectedVersion);
         return recipeMapper.toDto(recipe);
     }
 
+    /**
+     * <p>Bumps the version of a recipe whose children are written by bulk statements, without loading it. Done
+     * before those statements so that the recipe row stays locked until commit, which makes the version check
+     * and the write atomic.</p>
+     */
+    private void incrementVersion(UUID recipeId, Long expectedVersion) {
+        int updated = expectedVersion == null
+                ? repository.incrementVersion(recipeId, Instant.now())
+                : repository.incrementVersion(recipeId, expectedVersion, Instant.now());
+        if (updated == 0) {
+            repository.findVersionById(recipeId).orElseThrow(() -> new RecipeNotFoundException(recipeId));
+            throw new RecipePreconditionFailedException(recipeId, expectedVersion);
+        }
+    }
+
+    private RecipeDTO findWrittenRecipe(UUID recipeId) {
+        return readRepository.findById(recipeId).orElseThrow(() -> new RecipeNotFoundException(recipeId));
+    }
+
+    /**
+     * <p>Echoes the children as written rather than as read back, their descriptions being normalized on the way
+     * to the database only, the same way a response mapped from the written entity would</p>
+     */
+    private static <T> List<T> replace(List<T> read, Collection<T> written, Function<T, UUID> id,
+                                       Comparator<? super T> order) {
+        Map<UUID, T> writtenById = written.stream().collect(Collectors.toMap(id, child -> child));
+        return read.stream()
+                .map(child -> writtenById.getOrDefault(id.apply(child), child))
+                .sorted(order)
+                .toList();
+    }
+
     private Recipe findRecipeById(UUID recipeId) {
         return repository.findById(recipeId).orElseThrow(() -> new RecipeNotFoundException(recipeId));
     }
+
+    /**
+     * <p>Loads the recipe to modify, failing on the version column alone, before the aggregate is loaded, when
+     * the caller holds a stale version</p>
+     */
+    private Recipe findRecipeById(UUID recipeId, Long expectedVersion) {
+        if (expectedVersion != null) {
+            checkVersion(recipeId, expectedVersion, () -> new RecipeNotFoundException(recipeId));
+        }
+        Recipe recipe = findRecipeById(recipeId);
+        checkVersion(recipe, expectedVersion);
+        return recipe;
+    }
+
+    private void checkVersion(UUID recipeId, long expectedVersion, Supplier<RuntimeException> notFound) {
+        long version = repository.findVersionById(recipeId).orElseThrow(notFound);
+        if (version != expectedVersion) {
+            throw new RecipePreconditionFailedException(recipeId, expectedVersion);
+        }
+    }
+
+    /**
+     * <p>The recipe may have been modified between the version lookup and its load</p>
+     */
+    private static void checkVersion(Recipe recipe, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(recipe.getVersion())) {
+            throw new RecipePreconditionFailedException(recipe.getId(), expectedVersion);
+        }
+    }
+
+    /**
+     * <p>Flushes right away so that the returned recipe carries its new version, and so that a conditional write
+     * losing the race against a concurrent one fails its precondition instead of overwriting it</p>
+     */
+    private Recipe save(Recipe recipe, Long expectedVersion) {
+        Recipe saved = repository.save(recipe);
+        flush(saved, expectedVersion);
+        return saved;
+    }
+
+    private void flush(Recipe recipe, Long expectedVersion) {
+        try {
+            repository.flush();
+        } catch (ConcurrencyFailureException ex) {
+            if (expectedVersion == null) {
+                throw ex;
+            }
+            throw new RecipePreconditionFailedException(recipe.getId(), expectedVersion);
+        }
+    }
+
+    private static boolean isNameConflict(DataIntegrityViolationException ex) {
+        return ex.getCause() instanceof ConstraintViolationException violation
+                && StringUtils.containsIgnoreCase(violation.getConstraintName(), Recipe.NAME_KEY_CONSTRAINT);
+    }
 }
@@ -0,0 +1,46 @@
+package com.km.recipe.util;
+
+import com.km.recipe.dto.RecipeDTO;
+import com.km.recipe.exceptions.InvalidRequestException;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * <p>Opaque keyset position in the recipes ordered by {@code (created_date, id)}</p>
+ */
+public record RecipeCursor(Instant createdDate, UUID id) {
+
+    public static final Sort SORT = Sort.by("createdDate", "id");
+
+    private static final String SEPARATOR = "|";
+
+    public static RecipeCursor of(RecipeDTO recipe) {
+        return new RecipeCursor(recipe.getCreatedDate(), recipe.getId());
+    }
+
+    /**
+     * <p>Decodes a cursor handed out by {@link #encode()}, a blank value standing for the start of the list</p>
+     */
+    public static RecipeCursor decode(String cursor) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return new RecipeCursor(Instant.parse(StringUtils.substringBefore(value, SEPARATOR)),
+                    UUID.fromString(StringUtils.substringAfter(value, SEPARATOR)));
+        } catch (RuntimeException ex) {
+            throw new InvalidRequestException(String.format("Invalid cursor: %s", cursor));
+        }
+    }
+
+    public String encode() {
+        String value = createdDate + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,65 @@
+package com.km.recipe.util;
+
+import com.km.recipe.dto.RecipeDTO;
+import com.km.recipe.dto.page.RecipePage;
+import com.km.recipe.exceptions.RecipePreconditionFailedException;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.StringJoiner;
+
+/**
+ * <p>Strong entity tags of the recipe resources, derived from the optimistic locking versions</p>
+ */
+public final class RecipeETag {
+
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    private RecipeETag() {
+    }
+
+    /**
+     * <p>Tag of a recipe at the given version; the gzipped body is a different representation, so it gets its own tag</p>
+     */
+    public static String of(long version, boolean gzipped) {
+        return quote(version + (gzipped ? GZIP_SUFFIX : ""));
+    }
+
+    /**
+     * <p>Tag of a list page, changing whenever a recipe on it is added, removed, reordered or modified, or whenever
+     * the page's position in the list changes</p>
+     */
+    public static String of(RecipePage page) {
+        StringJoiner value = new StringJoiner("|");
+        for (RecipeDTO recipe : page.getContent()) {
+            value.add(recipe.getId() + ":" + recipe.getVersion());
+        }
+        value.add(String.valueOf(page.getNumber()))
+                .add(String.valueOf(page.getSize()))
+                .add(String.valueOf(page.getHasNext()))
+                .add(String.valueOf(page.getTotalElements()))
+                .add(String.valueOf(page.getNextCursor()));
+        return quote(DigestUtils.md5DigestAsHex(value.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * <p>Recipe version named by an {@code If-Match} header, {@code null} when the header is absent or {@code *}.
+     * A weak or foreign tag can never match strongly, so it fails the precondition.</p>
+     */
+    public static Long version(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String value = StringUtils.removeEnd(StringUtils.unwrap(ifMatch.trim(), '"'), GZIP_SUFFIX);
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new RecipePreconditionFailedException(ifMatch);
+        }
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+}
@@ -2,8 +2,13 @@ package com.km.recipe.util;
 
 import com.km.recipe.domain.*;
 import com.km.recipe.dto.CategoryDTO;
+import com.km.recipe.search.IngredientIndex;
+import com.km.recipe.search.RecipeBitmapIndex;
+import com.km.recipe.search.TrigramIndex;
 import jakarta.persistence.criteria.*;
+import jakarta.persistence.metamodel.SingularAttribute;
 import org.apache.commons.lang3.StringUtils;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.CollectionUtils;
 
@@ -11,49 +16,258 @@ import java.util.*;
 
 public class RecipeSpecificationBuilder extends AbstractSpecBuilder<Recipe> {
 
+    /**
+     * <p>How ingredient and instruction filters are compiled into SQL</p>
+     */
+    public enum FilterMode {
+        /**
+         * <p>One join per term, excluded terms evaluated row by row</p>
+         */
+        JOIN,
+        /**
+         * <p>One correlated {@code EXISTS} / {@code NOT EXISTS} subquery per term, without row fan-out</p>
+         */
+        EXISTS
+    }
+
+    /**
+     * <p>Largest number of recipes sent to the database as an id list, one bind parameter each. Filters matching
+     * more recipes are compiled into their SQL predicates instead.</p>
+     */
+    static final int ID_LIST_LIMIT = 1000;
+
+    private final IngredientIndex ingredientIndex;
+    private final TrigramIndex instructionIndex;
+    private final RecipeBitmapIndex bitmapIndex;
+    private final FilterMode filterMode;
+    private final StringJoiner key = new StringJoiner("&");
+    // filters resolved by the indexes, combined with the category and servings bitmaps once built
+    private final List<IdFilter> idFilters = new ArrayList<>();
+    private RoaringBitmap facets;
+    private Specification<Recipe> facetPredicates;
+
+    public RecipeSpecificationBuilder() {
+        this(null);
+    }
+
+    /**
+     * <p>Resolves ingredient filters against the given index, falling back to {@code LIKE} predicates
+     * while the index is not yet built</p>
+     */
+    public RecipeSpecificationBuilder(IngredientIndex ingredientIndex) {
+        this(ingredientIndex, FilterMode.EXISTS);
+    }
+
+    public RecipeSpecificationBuilder(IngredientIndex ingredientIndex, FilterMode filterMode) {
+        this(ingredientIndex, null, filterMode);
+    }
+
+    /**
+     * <p>Also narrows instruction filters down to the candidates of the given trigram index before the
+     * {@code LIKE} predicates confirm them</p>
+     */
+    public RecipeSpecificationBuilder(IngredientIndex ingredientIndex, TrigramIndex instructionIndex,
+                                      FilterMode filterMode) {
+        this(ingredientIndex, instructionIndex, null, filterMode);
+    }
+
+    /**
+     * <p>Also intersects the recipe sets of the indexes with each other and with the category and servings filters as
+     * bitmaps, so that the database is handed the recipes left rather than one id list per filter</p>
+     */
+    public RecipeSpecificationBuilder(IngredientIndex ingredientIndex, TrigramIndex instructionIndex,
+                                      RecipeBitmapIndex bitmapIndex, FilterMode filterMode) {
+        this.ingredientIndex = ingredientIndex;
+        this.instructionIndex = instructionIndex;
+        this.bitmapIndex = bitmapIndex;
+        this.filterMode = filterMode;
+    }
+
     public RecipeSpecificationBuilder withRecipeId(UUID id) {
-        Optional.ofNullable(id).ifPresent(uuid -> root = root.and(withIdEquals(uuid)));
+        Optional.ofNullable(id).ifPresent(uuid -> {
+            root = root.and(withIdEquals(uuid));
+            key.add("recipeId=" + uuid);
+        });
+        return this;
+    }
+
+    /**
+     * <p>Restricts to the given recipes, none matching when there are none. Not part of the {@link #key()},
+     * since the ids come from somewhere else than the request filters.</p>
+     */
+    public RecipeSpecificationBuilder withRecipeIds(Collection<UUID> ids) {
+        Optional.ofNullable(ids).ifPresent(values -> root = root.and(withIdIn(values)));
         return this;
     }
 
     public RecipeSpecificationBuilder withServings(Integer numberOfServings) {
         Optional.ofNullable(numberOfServings)
                 .filter(integer -> integer > 0)
-                .ifPresent(integer -> root = root.and(withServingsEquals(integer)));
+                .ifPresent(integer -> {
+                    if (useBitmapIndex()) {
+                        facet(bitmapIndex.withServings(integer), withServingsEquals(integer));
+                    } else {
+                        root = root.and(withServingsEquals(integer));
+                    }
+                    key.add("servings=" + integer);
+                });
         return this;
     }
 
     public RecipeSpecificationBuilder withExcludedIngredients(List<String> ingredients) {
+        return withExcludedIngredients(ingredients, false);
+    }
+
+    /**
+     * <p>Excludes the recipes with an ingredient containing any of the terms, or when fuzzy, any of their
+     * {@link IngredientIndex#expand(String) expansions}. Terms are matched exactly while the index is not built,
+     * or when one of them is too short for it to narrow down.</p>
+     */
+    public RecipeSpecificationBuilder withExcludedIngredients(List<String> ingredients, boolean fuzzy) {
         if (!CollectionUtils.isEmpty(ingredients)) {
-            root = root.and(ingredientsExcludes(ingredients));
+            if (useIngredientIndex(ingredients)) {
+                Set<UUID> matching = fuzzy
+                        ? ingredientIndex.findMatchingAnyFuzzy(ingredients)
+                        : ingredientIndex.findMatchingAny(ingredients);
+                narrow(matching, true, excludedIngredients(fuzzy ? expand(ingredients) : ingredients));
+            } else {
+                root = root.and(excludedIngredients(ingredients));
+            }
+            key.add((fuzzy ? "excludeIngredients~=" : "excludeIngredients=") + termsKey(ingredients));
         }
         return this;
     }
 
     public RecipeSpecificationBuilder withIncludedIngredients(List<String> ingredients) {
+        return withIncludedIngredients(ingredients, false);
+    }
+
+    /**
+     * <p>Keeps the recipes with, for every term, an ingredient containing it, or when fuzzy, one of its
+     * {@link IngredientIndex#expand(String) expansions}. Terms are matched exactly while the index is not built,
+     * or when one of them is too short for it to narrow down.</p>
+     */
+    public RecipeSpecificationBuilder withIncludedIngredients(List<String> ingredients, boolean fuzzy) {
         if (!CollectionUtils.isEmpty(ingredients)) {
-            root = root.and(ingredientsIncludes(ingredients));
+            if (useIngredientIndex(ingredients)) {
+                narrow(fuzzy
+                        ? ingredientIndex.findMatchingAllFuzzy(ingredients)
+                        : ingredientIndex.findMatchingAll(ingredients),
+                        false, fuzzy ? expansionsExist(ingredients) : includedIngredients(ingredients));
+            } else {
+                root = root.and(includedIngredients(ingredients));
+            }
+            key.add((fuzzy ? "withIngredients~=" : "withIngredients=") + termsKey(ingredients));
         }
         return this;
     }
 
     public RecipeSpecificationBuilder withInstructions(List<String> instructions) {
         if (!CollectionUtils.isEmpty(instructions)) {
-            root = root.and(instructionsIncludes(instructions));
+            if (instructionIndex != null && instructionIndex.isReady()) {
+                // the LIKE predicates below confirm the candidates, so too many of them are simply not sent
+                instructions.forEach(term -> instructionIndex.findCandidates(term)
+                        .ifPresent(candidates -> narrow(candidates, false, null)));
+            }
+            root = root.and(filterMode == FilterMode.EXISTS
+                    ? instructionsExist(instructions)
+                    : instructionsIncludes(instructions));
+            key.add("instructions=" + termsKey(instructions));
         }
         return this;
     }
 
     public RecipeSpecificationBuilder withCategory(CategoryDTO categoryDTO) {
         Optional.ofNullable(categoryDTO)
-                .ifPresent(value -> root = root.and(withCategoryEquals(value)));
+                .ifPresent(value -> {
+                    if (useBitmapIndex()) {
+                        facet(bitmapIndex.withCategory(CategoryType.valueOf(value.name())),
+                                withCategoryEquals(value));
+                    } else {
+                        root = root.and(withCategoryEquals(value));
+                    }
+                    key.add("mealCategory=" + value.name());
+                });
         return this;
     }
 
+    /**
+     * <p>Restricts to the recipes positioned after the cursor in {@link RecipeCursor#SORT} order</p>
+     */
+    public RecipeSpecificationBuilder withCursor(RecipeCursor cursor) {
+        Optional.ofNullable(cursor).ifPresent(value -> root = root.and(after(value)));
+        return this;
+    }
+
+    /**
+     * <p>Hands the database the recipes left by the filters resolved in memory: the intersection of the recipe sets
+     * of the indexes and of the category and servings bitmaps, minus the excluded recipes, as long as they can be
+     * listed. That id list replaces the category and servings predicates, the bitmaps being kept as current as the
+     * recipe sets they narrow. On their own, the category and servings bitmaps are never used: their equality
+     * predicates are left to the database, which also sees the recipes written by other instances. Otherwise every
+     * filter is sent as its own id list, or as its SQL predicate past {@link #ID_LIST_LIMIT}.</p>
+     */
+    @Override
+    public Specification<Recipe> build() {
+        RoaringBitmap matching = null;
+        for (IdFilter filter : idFilters) {
+            if (!filter.exclude()) {
+                matching = matching == null ? filter.recipes().clone() : RoaringBitmap.and(matching, filter.recipes());
+            }
+        }
+        if (matching != null) {
+            if (facets != null) {
+                matching.and(facets);
+            }
+            for (IdFilter filter : idFilters) {
+                if (filter.exclude()) {
+                    matching.andNot(filter.recipes());
+                }
+            }
+            if (matching.getCardinality() <= ID_LIST_LIMIT) {
+                return root.and(withIdIn(bitmapIndex.toIds(matching)));
+            }
+        }
+
+        Specification<Recipe> specification = facetPredicates == null ? root : root.and(facetPredicates);
+        for (IdFilter filter : idFilters) {
+            if (filter.recipes().getCardinality() <= ID_LIST_LIMIT) {
+                List<UUID> ids = bitmapIndex.toIds(filter.recipes());
+                specification = specification.and(filter.exclude() ? withIdNotIn(ids) : withIdIn(ids));
+            } else if (filter.fallback() != null) {
+                specification = specification.and(filter.fallback());
+            }
+        }
+        return specification;
+    }
+
+    /**
+     * <p>Canonical description of the filters applied so far, suitable as a cache key. The cursor is left out
+     * since it only positions the page.</p>
+     */
+    public String key() {
+        return key.toString();
+    }
+
     static Specification<Recipe> withIdEquals(UUID id) {
         return (root, cq, cb) -> cb.equal(root.get(AbstractEntity_.id), id);
     }
 
+    static Specification<Recipe> withIdIn(Collection<UUID> ids) {
+        return (root, cq, cb) -> ids.isEmpty() ? cb.disjunction() : root.get(AbstractEntity_.id).in(ids);
+    }
+
+    static Specification<Recipe> withIdNotIn(Collection<UUID> ids) {
+        return (root, cq, cb) -> ids.isEmpty() ? cb.conjunction() : root.get(AbstractEntity_.id).in(ids).not();
+    }
+
+    static Specification<Recipe> after(RecipeCursor cursor) {
+        return (root, cq, cb) -> cb.or(
+                cb.greaterThan(root.get(AbstractAuditableEntity_.createdDate), cursor.createdDate()),
+                cb.and(cb.equal(root.get(AbstractAuditableEntity_.createdDate), cursor.createdDate()),
+                        cb.greaterThan(root.get(AbstractEntity_.id), cursor.id())));
+    }
+
     static Specification<Recipe> withServingsEquals(Integer numberOfServings) {
         return (root, query, cb) -> cb.equal(root.get(Recipe_.servings), numberOfServings);
     }
@@ -82,6 +296,35 @@ public class RecipeSpecificationBuilder extends AbstractSpecBuilder<Recipe> {
         };
     }
 
+    static Specification<Recipe> ingredientsExist(List<String> ingredients) {
+        return (root, query, cb) -> cb.and(ingredients.stream()
+                .map(s -> descriptionExists(query, cb, root, Ingredient.class, Ingredient_.recipeId, Ingredient_.description, s))
+                .toArray(Predicate[]::new));
+    }
+
+    static Specification<Recipe> ingredientsNotExist(List<String> ingredients) {
+        return (root, query, cb) -> cb.and(ingredients.stream()
+                .map(s -> descriptionExists(query, cb, root, Ingredient.class, Ingredient_.recipeId, Ingredient_.description, s).not())
+                .toArray(Predicate[]::new));
+    }
+
+    /**
+     * <p>For every term, an ingredient containing one of its alternatives</p>
+     */
+    static Specification<Recipe> anyIngredientsExist(List<List<String>> alternatives) {
+        return (root, query, cb) -> cb.and(alternatives.stream()
+                .map(terms -> cb.or(terms.stream()
+                        .map(s -> descriptionExists(query, cb, root, Ingredient.class, Ingredient_.recipeId, Ingredient_.description, s))
+                        .toArray(Predicate[]::new)))
+                .toArray(Predicate[]::new));
+    }
+
+    static Specification<Recipe> instructionsExist(List<String> instructions) {
+        return (root, query, cb) -> cb.and(instructions.stream()
+                .map(s -> descriptionExists(query, cb, root, Instruction.class, Instruction_.recipeId, Instruction_.description, s))
+                .toArray(Predicate[]::new));
+    }
+
     private static Predicate ingredientPredicate(CriteriaBuilder cb, Root<Recipe> root, String value, boolean notLike) {
         Join<Ingredient, Recipe> ingredients = root.join("ingredients");
         String queryValue = "%" + StringUtils.lowerCase(value) + "%";
@@ -99,6 +342,77 @@ public class RecipeSpecificationBuilder extends AbstractSpecBuilder<Recipe> {
         return cb.like(expression, queryValue);
     }
 
+    private static <E> Predicate descriptionExists(CriteriaQuery<?> query, CriteriaBuilder cb, Root<Recipe> root,
+                                                   Class<E> type,
+                                                   SingularAttribute<? super E, UUID> recipeId,
+                                                   SingularAttribute<? super E, String> description,
+                                                   String value) {
+        Subquery<Integer> subquery = query.subquery(Integer.class);
+        Root<E> child = subquery.from(type);
+        subquery.select(cb.literal(1))
+                .where(cb.equal(child.get(recipeId), root.get(AbstractEntity_.id)),
+                        cb.like(cb.lower(child.get(description)), "%" + StringUtils.lowerCase(value) + "%"));
+        return cb.exists(subquery);
+    }
+
+    private static String termsKey(List<String> terms) {
+        return String.join(",", terms.stream().map(StringUtils::lowerCase).toList());
+    }
+
+    private boolean useIngredientIndex(List<String> ingredients) {
+        return ingredientIndex != null && ingredientIndex.isReady() && IngredientIndex.canNarrow(ingredients);
+    }
+
+    private boolean useBitmapIndex() {
+        return bitmapIndex != null && bitmapIndex.isReady();
+    }
+
+    private Specification<Recipe> includedIngredients(List<String> ingredients) {
+        return filterMode == FilterMode.EXISTS ? ingredientsExist(ingredients) : ingredientsIncludes(ingredients);
+    }
+
+    private Specification<Recipe> excludedIngredients(List<String> ingredients) {
+        return filterMode == FilterMode.EXISTS ? ingredientsNotExist(ingredients) : ingredientsExcludes(ingredients);
+    }
+
+    private Specification<Recipe> expansionsExist(List<String> ingredients) {
+        return anyIngredientsExist(ingredients.stream().map(ingredientIndex::expand).toList());
+    }
+
+    private List<String> expand(List<String> ingredients) {
+        return ingredients.stream().flatMap(term -> ingredientIndex.expand(term).stream()).distinct().toList();
+    }
+
+    /**
+     * <p>Keeps, or excludes, the recipes an index resolved the filter to, falling back to the filter's SQL
+     * predicate, if any, when they are too many to be listed</p>
+     */
+    private void narrow(Collection<UUID> ids, boolean exclude, Specification<Recipe> fallback) {
+        if (useBitmapIndex()) {
+            idFilters.add(new IdFilter(bitmapIndex.toBitmap(ids), exclude, fallback));
+        } else if (ids.size() <= ID_LIST_LIMIT) {
+            root = root.and(exclude ? withIdNotIn(ids) : withIdIn(ids));
+        } else if (fallback != null) {
+            root = root.and(fallback);
+        }
+    }
+
+    private void facet(RoaringBitmap bitmap, Specification<Recipe> predicate) {
+        if (facets == null) {
+            facets = bitmap;
+            facetPredicates = predicate;
+        } else {
+            facets.and(bitmap);
+            facetPredicates = facetPredicates.and(predicate);
+        }
+    }
+
+    /**
+     * <p>Recipes an index resolved a filter to, kept or excluded, along with the filter's SQL predicate, if any</p>
+     */
+    private record IdFilter(RoaringBitmap recipes, boolean exclude, Specification<Recipe> fallback) {
+    }
+
     static Specification<Recipe> withCategoryEquals(CategoryDTO categoryDTO) {
         return (root, query, cb) -> cb.equal(root.get(Recipe_.categoryType), CategoryType.valueOf(categoryDTO.name()));
     }
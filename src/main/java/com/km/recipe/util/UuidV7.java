@@ -0,0 +1,52 @@
+package com.km.recipe.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>Version 7 UUIDs: the Unix time in milliseconds in the 48 most significant bits, then a 12 bits sequence
+ * numbering the UUIDs of a same millisecond, then 62 random bits. UUIDs generated by this JVM are therefore strictly
+ * increasing, even when the clock steps back, while remaining as hard to guess as random ones within a
+ * millisecond.</p>
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final UuidV7 SYSTEM = new UuidV7(System::currentTimeMillis);
+
+    private final LongSupplier clock;
+
+    /**
+     * <p>Milliseconds and sequence of the last UUID, as {@code millis << 12 | sequence}. A sequence running out
+     * borrows the next millisecond.</p>
+     */
+    private final AtomicLong last = new AtomicLong();
+
+    /**
+     * <p>Generator of its own, reading the time in milliseconds from the given clock</p>
+     */
+    UuidV7(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public static UUID next() {
+        return SYSTEM.generate();
+    }
+
+    UUID generate() {
+        long candidate = clock.getAsLong() << 12;
+        long stamp = last.updateAndGet(previous -> Math.max(candidate, previous + 1));
+        long mostSignificantBits = (stamp >>> 12) << 16 | 0x7000L | (stamp & 0xFFFL);
+        long leastSignificantBits = RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * <p>Unix time in milliseconds held by a version 7 UUID</p>
+     */
+    public static long millis(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
@@ -0,0 +1,92 @@
+package com.km.recipe;
+
+import com.km.recipe.domain.CategoryType;
+import com.km.recipe.domain.Recipe;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * <p>Catalogue of recipes the benchmarks run against, inserted with plain JDBC batches of
+ * {@value #BATCH_SIZE} recipes, since saving that many entities would take longer than the benchmarks
+ * themselves.</p>
+ */
+public class BenchmarkCatalogue {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Timestamp now = Timestamp.from(Instant.now());
+    private final List<Object[]> recipes = new ArrayList<>();
+    private final List<Object[]> ingredients = new ArrayList<>();
+    private final List<Object[]> instructions = new ArrayList<>();
+
+    public BenchmarkCatalogue(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * <p>Adds a recipe with the given ingredient descriptions and instruction steps, in order, inserting it along
+     * with the recipes added before it once a batch is full</p>
+     */
+    public UUID add(String name, CategoryType category, int servings, List<String> ingredientDescriptions,
+                    List<String> instructionDescriptions) {
+        UUID recipeId = UUID.randomUUID();
+        recipes.add(new Object[]{recipeId, name, Recipe.nameKey(name), category.name(), servings, 10, 20, now, now,
+                0L});
+        ingredientDescriptions.forEach(description ->
+                ingredients.add(new Object[]{UUID.randomUUID(), recipeId, description}));
+        for (int step = 0; step < instructionDescriptions.size(); step++) {
+            instructions.add(new Object[]{UUID.randomUUID(), recipeId, instructionDescriptions.get(step), step + 1});
+        }
+        if (recipes.size() == BATCH_SIZE) {
+            flush();
+        }
+        return recipeId;
+    }
+
+    /**
+     * <p>Inserts the recipes added since the last batch</p>
+     */
+    public void flush() {
+        jdbcTemplate.batchUpdate("INSERT INTO recipe (id, name, name_key, category, number_of_servings, " +
+                "preparation_time, cooking_time, created_date, updated_date, version) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", recipes);
+        jdbcTemplate.batchUpdate("INSERT INTO recipe_ingredients (id, recipe_id, description) VALUES (?, ?, ?)",
+                ingredients);
+        jdbcTemplate.batchUpdate("INSERT INTO recipe_instructions (id, recipe_id, description, step) " +
+                "VALUES (?, ?, ?, ?)", instructions);
+        recipes.clear();
+        ingredients.clear();
+        instructions.clear();
+    }
+
+    /**
+     * <p>Deletes every recipe, whether added through the catalogue or not</p>
+     */
+    public void clear() {
+        jdbcTemplate.execute("DELETE FROM recipe_ingredients");
+        jdbcTemplate.execute("DELETE FROM recipe_instructions");
+        jdbcTemplate.execute("DELETE FROM recipe");
+    }
+
+    /**
+     * <p>Median time of the given runs in milliseconds, after a first run warming the caches up</p>
+     */
+    public static double medianMillis(int iterations, Runnable run) {
+        run.run();
+        long[] latencies = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            run.run();
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies[iterations / 2] / 1_000_000.0;
+    }
+}
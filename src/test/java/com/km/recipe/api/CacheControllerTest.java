@@ -0,0 +1,105 @@
+package com.km.recipe.api;
+
+import com.km.recipe.WebIntegrationTest;
+import com.km.recipe.domain.CategoryType;
+import com.km.recipe.domain.Ingredient;
+import com.km.recipe.domain.Instruction;
+import com.km.recipe.domain.Recipe;
+import com.km.recipe.domain.repository.RecipeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItems;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebIntegrationTest
+class CacheControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    RecipeRepository repository;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void willReturnStatistics_ofEverySecondLevelCacheRegion() throws Exception {
+        //when
+        ResultActions actions = mockMvc.perform(get("/cache/statistics"));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].region", hasItems("recipe", "recipe-ingredients", "recipe-instructions",
+                        "ingredient", "instruction")))
+                .andExpect(jsonPath("$[0].hit_count").isNumber())
+                .andExpect(jsonPath("$[0].miss_count").isNumber())
+                .andExpect(jsonPath("$[0].hit_ratio").isNumber());
+    }
+
+    @Test
+    void willCountSecondLevelCacheHits_inTheDefaultConfiguration() throws Exception {
+        //given
+        Recipe recipe = repository.save(Recipe.builder()
+                .name("Cached soup")
+                .servings(2)
+                .preparationTime(5)
+                .cookingTime(10)
+                .categoryType(CategoryType.VEGETARIAN)
+                .ingredients(new TreeSet<>(List.of(Ingredient.builder().description("Leeks").build())))
+                .instructions(new TreeSet<>(List.of(Instruction.builder().description("Simmer").step(1).build())))
+                .build());
+        repository.findById(recipe.getId());
+
+        //when
+        ResultActions actions = mockMvc.perform(get("/cache/statistics"));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.region == 'recipe')].hit_count", everyItem(greaterThan(0))));
+    }
+
+    @Test
+    void willReturnExecutedAndCoalescedCounts_ofSharedRecipeLoads() throws Exception {
+        //when
+        ResultActions actions = mockMvc.perform(get("/cache/single-flight"));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", hasItems("recipe", "recipe-page")))
+                .andExpect(jsonPath("$[0].executed_count").isNumber())
+                .andExpect(jsonPath("$[0].coalesced_count").isNumber());
+    }
+
+    @Nested
+    @TestPropertySource(properties = "recipe.cache.statistics-enabled=false")
+    class WhenStatisticsAreDisabled {
+
+        @Autowired
+        MockMvc disabledMockMvc;
+
+        @Test
+        void willNotFindStatistics() throws Exception {
+            //when
+            ResultActions actions = disabledMockMvc.perform(get("/cache/statistics"));
+
+            //then
+            actions.andExpect(status().isNotFound());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.km.recipe.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.km.recipe.BenchmarkCatalogue;
+import com.km.recipe.WebIntegrationTest;
+import com.km.recipe.dto.CategoryDTO;
+import com.km.recipe.dto.CreateRecipeDTO;
+import com.km.recipe.dto.IngredientDTO;
+import com.km.recipe.dto.InstructionDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * <p>Compares the throughput of {@code POST /recipes/batch} against one {@code POST /recipes} per recipe. Run with
+ * {@code mvn test -Pbenchmark}, optionally overriding the number of recipes with {@code -Dbenchmark.recipes=20000}.</p>
+ */
+@WebIntegrationTest
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class RecipeBatchCreateBenchmark {
+
+    private static final int BATCH_REQUEST_SIZE = 5000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        new BenchmarkCatalogue(jdbcTemplate).clear();
+    }
+
+    @Test
+    void compareSingleAndBatchCreation() throws Exception {
+        int count = Integer.getInteger("benchmark.recipes", 10_000);
+        // warm up both paths
+        createOneByOne(recipes("Warm up single", 200));
+        createInBatches(recipes("Warm up batch", 200));
+
+        long start = System.nanoTime();
+        createOneByOne(recipes("Single", count));
+        double singleRate = count / ((System.nanoTime() - start) / 1_000_000_000.0);
+
+        start = System.nanoTime();
+        createInBatches(recipes("Batch", count));
+        double batchRate = count / ((System.nanoTime() - start) / 1_000_000_000.0);
+
+        System.out.printf("recipes=%d singleRecipesPerSec=%.0f batchRecipesPerSec=%.0f speedup=%.1fx%n",
+                count, singleRate, batchRate, batchRate / singleRate);
+        assertThat(batchRate).isGreaterThanOrEqualTo(10 * singleRate);
+    }
+
+    private void createOneByOne(List<CreateRecipeDTO> recipes) throws Exception {
+        for (CreateRecipeDTO recipe : recipes) {
+            mockMvc.perform(post("/recipes")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsBytes(recipe)))
+                    .andExpect(status().isCreated());
+        }
+    }
+
+    private void createInBatches(List<CreateRecipeDTO> recipes) throws Exception {
+        for (int from = 0; from < recipes.size(); from += BATCH_REQUEST_SIZE) {
+            mockMvc.perform(post("/recipes/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsBytes(
+                                    recipes.subList(from, Math.min(from + BATCH_REQUEST_SIZE, recipes.size())))))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    private static List<CreateRecipeDTO> recipes(String prefix, int count) {
+        List<CreateRecipeDTO> recipes = new ArrayList<>(count);
+        IntStream.range(0, count).forEach(i -> recipes.add(CreateRecipeDTO.builder()
+                .name(prefix + " " + i)
+                .categoryType(CategoryDTO.OTHER)
+                .servings(2)
+                .preparationTime(10)
+                .cookingTime(20)
+                .ingredients(List.of(
+                        IngredientDTO.builder().description("Tomatoes").build(),
+                        IngredientDTO.builder().description("Onion").build(),
+                        IngredientDTO.builder().description("Garlic").build(),
+                        IngredientDTO.builder().description("Olive oil").build(),
+                        IngredientDTO.builder().description("Sea salt").build()))
+                .instructions(List.of(
+                        InstructionDTO.builder().description("Chop the vegetables").step(1).build(),
+                        InstructionDTO.builder().description("Simmer slowly").step(2).build(),
+                        InstructionDTO.builder().description("Serve warm").step(3).build()))
+                .build()));
+        return recipes;
+    }
+}
@@ -1,5 +1,6 @@
 package com.km.recipe.api;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.km.recipe.WebIntegrationTest;
 import com.km.recipe.domain.CategoryType;
@@ -8,24 +9,36 @@ import com.km.recipe.domain.Instruction;
 import com.km.recipe.domain.Recipe;
 import com.km.recipe.domain.repository.RecipeRepository;
 import com.km.recipe.dto.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.ByteArrayInputStream;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebIntegrationTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class RecipeControllerTest {
 
     @Autowired
@@ -37,8 +50,14 @@ class RecipeControllerTest {
     @Autowired
     RecipeRepository repository;
 
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
     @BeforeEach
     void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
     }
 
     @AfterEach
@@ -98,6 +117,137 @@ class RecipeControllerTest {
                 .andExpect(jsonPath("$.instructions[1].description").value("Mix the things and voila"));
     }
 
+    @Test
+    void willCreateRecipesInBatch_reportingConflictsPerRecipe() throws Exception {
+        //given
+        repository.save(mockRecipe("Pumpkin soup"));
+        List<CreateRecipeDTO> recipes = List.of(
+                createRecipeDTO("Beef Stew"),
+                createRecipeDTO("pumpkin soup"),
+                createRecipeDTO("Chicken curry"),
+                createRecipeDTO("BEEF STEW"));
+        // cached as a free name before the batch
+        assertThat(repository.existsByName("Chicken curry")).isFalse();
+
+        //when
+        ResultActions actions = mockMvc.perform(post("/recipes/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(recipes)));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(4)))
+                .andExpect(jsonPath("$[0].name").value("Beef stew"))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].id").isNotEmpty())
+                .andExpect(jsonPath("$[1].name").value("pumpkin soup"))
+                .andExpect(jsonPath("$[1].status").value("CONFLICT"))
+                .andExpect(jsonPath("$[1].id").doesNotExist())
+                .andExpect(jsonPath("$[2].name").value("Chicken curry"))
+                .andExpect(jsonPath("$[2].status").value("CREATED"))
+                .andExpect(jsonPath("$[3].status").value("CONFLICT"));
+
+        //and
+        assertThat(repository.findByName("Chicken curry")).get()
+                .satisfies(recipe -> assertThat(recipe.getIngredients()).hasSize(2))
+                .satisfies(recipe -> assertThat(recipe.getInstructions()).hasSize(1));
+        assertThat(repository.existsByName("Chicken curry")).isTrue();
+        assertThat(repository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void willReturnBadRequestHttpStatus_whenAnyRecipeOfBatchIsInvalid() throws Exception {
+        //given
+        CreateRecipeDTO invalid = createRecipeDTO("Beef Stew");
+        invalid.setIngredients(List.of());
+
+        //when
+        ResultActions actions = mockMvc.perform(post("/recipes/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(List.of(createRecipeDTO("Chicken curry"), invalid))));
+
+        //then
+        actions.andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid recipe at index: 1, ingredients: must not be empty"));
+        assertThat(repository.count()).isZero();
+    }
+
+    @Test
+    void willLookRecipesUpById_inRequestOrder_markingUnknownIds() throws Exception {
+        //given
+        Recipe pasta = repository.save(mockRecipe("Chicken pasta"));
+        Recipe soup = repository.save(mockRecipe("Chicken soup"));
+        UUID unknown = UUID.randomUUID();
+
+        //when
+        ResultActions actions = mockMvc.perform(post("/recipes/_mget")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(List.of(soup.getId(), unknown, pasta.getId()))));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(3)))
+                .andExpect(jsonPath("$[0].id").value(soup.getId().toString()))
+                .andExpect(jsonPath("$[0].found").value(true))
+                .andExpect(jsonPath("$[0].recipe.name").value("Chicken soup"))
+                .andExpect(jsonPath("$[0].recipe.ingredients", hasSize(2)))
+                .andExpect(jsonPath("$[1].id").value(unknown.toString()))
+                .andExpect(jsonPath("$[1].found").value(false))
+                .andExpect(jsonPath("$[1].recipe").doesNotExist())
+                .andExpect(jsonPath("$[2].recipe.name").value("Chicken pasta"));
+    }
+
+    @Test
+    void willReturnBadRequest_whenLookingUpTooManyRecipesAtOnce() throws Exception {
+        //given
+        List<UUID> recipeIds = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            recipeIds.add(UUID.randomUUID());
+        }
+
+        //when
+        ResultActions actions = mockMvc.perform(post("/recipes/_mget")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(recipeIds)));
+
+        //then
+        actions.andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Cannot look up more than 100 recipes at once"));
+    }
+
+    @Test
+    void willExportRecipesMatchingFilters_asNdjson_inCreationOrder() throws Exception {
+        //given
+        Recipe chicken = repository.save(mockRecipe("Chicken pasta"));
+        createRecipe("Lentil soup", 4, 10, 30, CategoryType.VEGETARIAN, new TreeSet<>(Set.of(Ingredient.builder()
+                .description("Lentils")
+                .build())), new TreeSet<>(Set.of(Instruction.builder()
+                .description("Boil the lentils")
+                .step(1)
+                .build())));
+        Recipe tomatoes = repository.save(mockRecipe("Tomato pasta"));
+
+        //when
+        MvcResult result = mockMvc.perform(get("/recipes/export")
+                        .queryParam("mealCategory", CategoryDTO.CHICKEN.name())
+                        .queryParam("withIngredients", "macaroni"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions actions = mockMvc.perform(asyncDispatch(result));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE));
+        List<JsonNode> recipes = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString().split("\n")) {
+            recipes.add(objectMapper.readTree(line));
+        }
+        assertThat(recipes).extracting(recipe -> recipe.get("id").asText())
+                .containsExactly(chicken.getId().toString(), tomatoes.getId().toString());
+        assertThat(recipes.get(0).get("ingredients")).hasSize(2);
+        assertThat(recipes.get(0).get("instructions")).hasSize(2);
+    }
+
     @Test
     void willReturnBadRequestHttpStatus_whenRequiredRecipeInfoNotProvided() throws Exception {
         //given
@@ -211,6 +361,227 @@ class RecipeControllerTest {
                 .andExpect(jsonPath("$.instructions[1].description").value("Mix the onions and tomatoes"));
     }
 
+    @Test
+    void willReturnGzippedRecipe_whenClientAcceptsGzip() throws Exception {
+        //given
+        Recipe recipe = mockRecipe("My Recipe");
+
+        //when
+        ResultActions actions = mockMvc.perform(get("/recipes/{recipeId}", recipe.getId())
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"));
+
+        //then
+        byte[] body = actions.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            JsonNode json = objectMapper.readTree(in);
+            assertThat(json.get("id").asText()).isEqualTo(recipe.getId().toString());
+            assertThat(json.get("ingredients")).hasSize(2);
+        }
+    }
+
+    @Test
+    void willReturnUpdatedRecipe_afterCachedVersionIsUpdated() throws Exception {
+        //given
+        Recipe recipe = mockRecipe("My Recipe");
+        mockMvc.perform(get("/recipes/{recipeId}", recipe.getId()))
+                .andExpect(jsonPath("$.name").value("My recipe"));
+
+        //when
+        mockMvc.perform(put("/recipes/{recipeId}", recipe.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(UpdateRecipeDTO.builder()
+                                .name("My famous recipe")
+                                .servings(100)
+                                .cookingTime(200)
+                                .preparationTime(200)
+                                .build())))
+                .andExpect(status().isOk());
+
+        //then
+        mockMvc.perform(get("/recipes/{recipeId}", recipe.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("My famous recipe"))
+                .andExpect(jsonPath("$.servings").value(100));
+    }
+
+    @Test
+    void willReturnNotModified_fromVersionLookupAlone_whenRecipeIsUnchanged() throws Exception {
+        //given
+        Recipe recipe = mockRecipe("My Recipe");
+        String eTag = mockMvc.perform(get("/recipes/{recipeId}", recipe.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + recipe.getVersion() + "\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        statistics.clear();
+
+        //when
+        ResultActions actions = mockMvc.perform(get("/recipes/{recipeId}", recipe.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag));
+
+        //then
+        actions.andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        assertThat(actions.andReturn().getResponse().getContentLength()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    void willReturnRecipe_whenHeldVersionIsStale() throws Exception {
+        //given
+        Recipe recipe = mockRecipe("My Recipe");
+        String eTag = mockMvc.perform(get("/recipes/{recipeId}", recipe.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //and
+        mockMvc.perform(post("/recipes/{recipeId}/ingredients", recipe.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(List.of(IngredientDTO.builder()
+                                .description("Basil")
+                                .build()))))
+                .andExpect(status().isOk());
+
+        //when
+        ResultActions actions = mockMvc.perform(get("/recipes/{recipeId}", recipe.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.ingredients.*", hasSize(3)));
+        assertThat(actions.andReturn().getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void willReturnNotModifiedPage_untilARecipeOnItChanges() throws Exception {
+        //given
+        Recipe recipe = mockRecipe("My Recipe");
+        mockRecipe("My Other Recipe");
+        String eTag = mockMvc.perform(get("/recipes"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        statistics.clear();
+
+        //when
+        ResultActions unchanged = mockMvc.perform(get("/recipes")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag));
+
+        //then
+        unchanged.andExpect(status().isNotModified());
+        // the page itself, its total being cached and its ingredients and instructions never read
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        //when
+        mockMvc.perform(delete("/recipes/{recipeId}/ingredients", recipe.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(List.of(recipe.getIngredients().first().getId()))))
+                .andExpect(status().isNoContent());
+        ResultActions changed = mockMvc.perform(get("/recipes")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag));
+
+        //then
+        changed.andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.*", hasSize(2)));
+    }
+
+    @Test
+    void willReturnPreconditionFailed_withoutLoadingRecipe_whenIfMatchIsStale() throws Exception {
+        //given
+        Recipe recipe = mockRecipe("My Recipe");
+        statistics.clear();
+
+        //when
+        ResultActions actions = mockMvc.perform(put("/recipes/{recipeId}", recipe.getId())
+                .header(HttpHeaders.IF_MATCH, "\"" + (recipe.getVersion() + 1) + "\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(UpdateRecipeDTO.builder()
+                        .name("My famous recipe")
+                        .servings(100)
+                        .cookingTime(200)
+                        .preparationTime(200)
+                        .build())));
+
+        //then
+        actions.andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.message").value("Recipe with id: " + recipe.getId() +
+                        ", is no longer at version: " + (recipe.getVersion() + 1)));
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(repository.findById(recipe.getId())).get()
+                .extracting(Recipe::getName)
+                .isEqualTo("My recipe");
+    }
+
+    @Test
+    void willApplyWrite_andReturnNewETag_whenIfMatchHoldsCurrentVersion() throws Exception {
+        //given
+        Recipe recipe = mockRecipe("My Recipe");
+        String eTag = mockMvc.perform(get("/recipes/{recipeId}", recipe.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when
+        ResultActions actions = mockMvc.perform(post("/recipes/{recipeId}/instructions", recipe.getId())
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(List.of(InstructionDTO.builder()
+                        .description("Serve")
+                        .step(3)
+                        .build()))));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (recipe.getVersion() + 1) + "\""))
+                .andExpect(jsonPath("$.instructions.*", hasSize(3)));
+
+        //when
+        ResultActions stale = mockMvc.perform(delete("/recipes/{recipeId}", recipe.getId())
+                .header(HttpHeaders.IF_MATCH, eTag));
+
+        //then
+        stale.andExpect(status().isPreconditionFailed());
+        assertThat(repository.existsById(recipe.getId())).isTrue();
+    }
+
+    @Test
+    void willApplyExactlyOneWrite_whenParallelWritersHoldTheSameVersion() throws Exception {
+        //given
+        Recipe recipe = mockRecipe("My Recipe");
+        String eTag = "\"" + recipe.getVersion() + "\"";
+        int writers = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        //when
+        List<Future<Integer>> statuses = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            String description = "Ingredient " + i;
+            statuses.add(executor.submit(() -> {
+                start.await();
+                return mockMvc.perform(post("/recipes/{recipeId}/ingredients", recipe.getId())
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsBytes(List.of(IngredientDTO.builder()
+                                        .description(description)
+                                        .build()))))
+                        .andReturn().getResponse().getStatus();
+            }));
+        }
+        start.countDown();
+        List<Integer> results = new ArrayList<>();
+        for (Future<Integer> status : statuses) {
+            results.add(status.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(results).containsOnly(200, 412);
+        assertThat(results).filteredOn(status -> status == 200).hasSize(1);
+        Recipe written = repository.findById(recipe.getId()).orElseThrow();
+        assertThat(written.getVersion()).isEqualTo(recipe.getVersion() + 1);
+        assertThat(written.getIngredients()).hasSize(3);
+    }
+
     @Test
     void willReturnNotFound_whenRecipeWithGivenId_isNotFound() throws Exception {
         //given
@@ -461,6 +832,275 @@ class RecipeControllerTest {
                 .andExpect(jsonPath("$.totalElements").value(1));
     }
 
+    @Test
+    void willReturnRecipesRankedByRelevance_withinTheFilters_whenSearching() throws Exception {
+        //given
+        Recipe stew = createRecipe("Beef stew", 4, 10, 90,
+                CategoryType.BEEF,
+                new TreeSet<>(Set.of(Ingredient.builder()
+                        .description("500g Beef cubes")
+                        .build())),
+                new TreeSet<>(List.of(Instruction.builder()
+                        .description("Brown the beef")
+                        .detailedDescription("Sear the beef in batches until browned")
+                        .step(1)
+                        .build()))
+        );
+
+        createRecipe("Beef burger", 2, 10, 15,
+                CategoryType.BEEF,
+                new TreeSet<>(Set.of(Ingredient.builder()
+                        .description("Minced beef")
+                        .build())),
+                new TreeSet<>(List.of(Instruction.builder()
+                        .description("Grill the patties")
+                        .step(1)
+                        .build()))
+        );
+
+        createRecipe("Vegetable stew", 4, 10, 60,
+                CategoryType.VEGETARIAN,
+                new TreeSet<>(Set.of(Ingredient.builder()
+                        .description("Carrots")
+                        .build())),
+                new TreeSet<>(List.of(Instruction.builder()
+                        .description("Simmer the carrots")
+                        .step(1)
+                        .build()))
+        );
+
+        //when
+        ResultActions actions = mockMvc.perform(get("/recipes/search")
+                .queryParam("q", "beef stew")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(3)))
+                .andExpect(jsonPath("$[0].recipe.id").value(stew.getId().toString()))
+                .andExpect(jsonPath("$[0].score").isNumber());
+
+        //when
+        actions = mockMvc.perform(get("/recipes/search")
+                .queryParam("q", "stew")
+                .queryParam("mealCategory", "VEGETARIAN")
+                .queryParam("servings", "4")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(1)))
+                .andExpect(jsonPath("$[0].recipe.name").value("Vegetable stew"));
+
+        //when
+        actions = mockMvc.perform(get("/recipes/search")
+                .queryParam("q", "browned beef")
+                .queryParam("limit", "1")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(1)))
+                .andExpect(jsonPath("$[0].recipe.id").value(stew.getId().toString()));
+
+        //when
+        actions = mockMvc.perform(get("/recipes/search")
+                .queryParam("q", "stew")
+                .queryParam("limit", "1000000")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        //then
+        actions.andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void willMatchMisspelledIngredients_whenFuzzy() throws Exception {
+        //given
+        createRecipe("Pasta", 2, 10, 20,
+                CategoryType.VEGETARIAN,
+                new TreeSet<>(Set.of(Ingredient.builder()
+                                .description("Grated Parmesan")
+                                .build(),
+                        Ingredient.builder()
+                                .description("Cherry tomatoes")
+                                .build())),
+                new TreeSet<>(List.of(Instruction.builder()
+                        .description("Boil the pasta")
+                        .step(1)
+                        .build()))
+        );
+
+        //when
+        ResultActions actions = mockMvc.perform(get("/recipes")
+                .queryParam("withIngredients", "parmesean")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+
+        //when
+        actions = mockMvc.perform(get("/recipes")
+                .queryParam("withIngredients", "parmesean")
+                .queryParam("fuzzy", "true")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        //when
+        actions = mockMvc.perform(get("/recipes")
+                .queryParam("excludeIngredients", "tomatos")
+                .queryParam("fuzzy", "true")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    void willSuggestCompletions_ofRecipeNamesAndIngredients_byPopularity() throws Exception {
+        //given
+        createRecipe("Tomato soup", 2, 10, 20,
+                CategoryType.VEGETARIAN,
+                new TreeSet<>(Set.of(Ingredient.builder()
+                                .description("Tomatoes")
+                                .build(),
+                        Ingredient.builder()
+                                .description("Tomato paste")
+                                .build())),
+                new TreeSet<>(List.of(Instruction.builder()
+                        .description("Simmer the tomatoes")
+                        .step(1)
+                        .build()))
+        );
+
+        createRecipe("Tomato salad", 2, 10, 5,
+                CategoryType.VEGETARIAN,
+                new TreeSet<>(Set.of(Ingredient.builder()
+                        .description("Tomatoes")
+                        .build())),
+                new TreeSet<>(List.of(Instruction.builder()
+                        .description("Slice the tomatoes")
+                        .step(1)
+                        .build()))
+        );
+
+        //when
+        ResultActions actions = mockMvc.perform(get("/recipes/suggest")
+                .queryParam("prefix", "TOMATO s")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(2)))
+                .andExpect(jsonPath("$[0].value").value("Tomato salad"))
+                .andExpect(jsonPath("$[1].value").value("Tomato soup"));
+
+        //when
+        actions = mockMvc.perform(get("/recipes/suggest")
+                .queryParam("prefix", "tom")
+                .queryParam("field", "ingredient")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(2)))
+                .andExpect(jsonPath("$[0].value").value("Tomatoes"))
+                .andExpect(jsonPath("$[0].weight").value(2))
+                .andExpect(jsonPath("$[1].value").value("Tomato paste"))
+                .andExpect(jsonPath("$[1].weight").value(1));
+
+        //when
+        actions = mockMvc.perform(get("/recipes/suggest")
+                .queryParam("prefix", "tom")
+                .queryParam("field", "instruction")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        //then
+        actions.andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void willReturnSliceWithoutTotals_whenTotalIsNotRequested() throws Exception {
+        //given
+        mockRecipe("First recipe");
+        mockRecipe("Second recipe");
+        mockRecipe("Third recipe");
+
+        //when
+        ResultActions actions = mockMvc.perform(get("/recipes")
+                .queryParam("withTotal", "false")
+                .queryParam("pageSize", "2")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.*", hasSize(2)))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.totalPages").doesNotExist());
+
+        //and
+        mockMvc.perform(get("/recipes")
+                        .queryParam("withTotal", "false")
+                        .queryParam("pageSize", "2")
+                        .queryParam("pageNumber", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.*", hasSize(1)))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.last").value(true));
+    }
+
+    @Test
+    void willWalkAllRecipes_whenFollowingKeysetCursor() throws Exception {
+        //given
+        mockRecipe("First recipe");
+        mockRecipe("Second recipe");
+        mockRecipe("Third recipe");
+
+        //when starting from an empty cursor
+        String body = mockMvc.perform(get("/recipes")
+                        .queryParam("cursor", "")
+                        .queryParam("pageSize", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.*", hasSize(2)))
+                .andExpect(jsonPath("$.first").value(true))
+                .andExpect(jsonPath("$.last").value(false))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+
+        //and following the next cursor
+        ResultActions actions = mockMvc.perform(get("/recipes")
+                .queryParam("cursor", objectMapper.readTree(body).get("nextCursor").asText())
+                .queryParam("pageSize", "2")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.*", hasSize(1)))
+                .andExpect(jsonPath("$.first").value(false))
+                .andExpect(jsonPath("$.last").value(true))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void willReturnUnprocessableEntity_whenCursorIsInvalid() throws Exception {
+        //when
+        ResultActions actions = mockMvc.perform(get("/recipes")
+                .queryParam("cursor", "not-a-cursor")
+                .contentType(MediaType.APPLICATION_JSON));
+
+        //then
+        actions.andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value("Invalid cursor: not-a-cursor"));
+    }
+
     @Test
     void willReturnOk_whenDeletingIngredientFromRecipe() throws Exception {
         //given
@@ -495,6 +1135,31 @@ class RecipeControllerTest {
         assertThat(recipe.getIngredients()).doesNotContain(ingredient);
     }
 
+    @Test
+    void willReturnUnprocessableEntity_whenDeletingEveryIngredientOrInstruction() throws Exception {
+        //given
+        Recipe recipe = mockRecipe("My Recipe");
+        List<UUID> ingredientIds = recipe.getIngredients().stream().map(Ingredient::getId).toList();
+        List<UUID> instructionIds = recipe.getInstructions().stream().map(Instruction::getId).toList();
+
+        //when
+        ResultActions ingredients = mockMvc.perform(delete("/recipes/{recipeId}/ingredients", recipe.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(ingredientIds)));
+        ResultActions instructions = mockMvc.perform(delete("/recipes/{recipeId}/instructions", recipe.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(instructionIds)));
+
+        //then
+        ingredients.andExpect(status().isUnprocessableEntity());
+        instructions.andExpect(status().isUnprocessableEntity());
+
+        //and
+        recipe = repository.findById(recipe.getId()).get();
+        assertThat(recipe.getIngredients()).hasSameSizeAs(ingredientIds);
+        assertThat(recipe.getInstructions()).hasSameSizeAs(instructionIds);
+    }
+
     @Test
     void willReturnOk_whenDeletingInstructionFromRecipe() throws Exception {
         //given
@@ -617,6 +1282,26 @@ class RecipeControllerTest {
                 .build());
     }
 
+    private static CreateRecipeDTO createRecipeDTO(String name) {
+        return CreateRecipeDTO.builder()
+                .categoryType(CategoryDTO.OTHER)
+                .cookingTime(25)
+                .preparationTime(10)
+                .servings(2)
+                .name(name)
+                .ingredients(List.of(IngredientDTO.builder()
+                                .description("Salt")
+                                .build(),
+                        IngredientDTO.builder()
+                                .description("Pepper")
+                                .build()))
+                .instructions(List.of(InstructionDTO.builder()
+                        .description("Season to taste")
+                        .step(1)
+                        .build()))
+                .build();
+    }
+
     public Recipe mockRecipe(String name) {
         SortedSet<Instruction> instructions = new TreeSet<>(List.of(Instruction.builder()
                         .description("Chop the tomatoes")
@@ -0,0 +1,101 @@
+package com.km.recipe.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.km.recipe.WebIntegrationTest;
+import com.km.recipe.domain.repository.RecipeImportRepository;
+import com.km.recipe.domain.repository.RecipeRepository;
+import com.km.recipe.dto.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebIntegrationTest
+class RecipeImportControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    RecipeRepository repository;
+
+    @Autowired
+    RecipeImportRepository importRepository;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+        importRepository.deleteAll();
+    }
+
+    @Test
+    void willImportNdjsonBody_andReportProgress() throws Exception {
+        //given
+        String ndjson = objectMapper.writeValueAsString(createRecipeDTO("Beef stew")) + "\n" +
+                objectMapper.writeValueAsString(createRecipeDTO("Chicken curry")) + "\n" +
+                "{\"name\":\"Fish pie\"}\n";
+
+        //when
+        ResultActions actions = mockMvc.perform(post("/recipes/imports")
+                .param("importId", "dump-2023")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(ndjson));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.import_id").value("dump-2023"))
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.records").value(3))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rows_per_second").isNumber());
+        assertThat(repository.findByName("Chicken curry")).isPresent();
+
+        //when
+        actions = mockMvc.perform(get("/recipes/imports/dump-2023"));
+
+        //then
+        actions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.created").value(2));
+    }
+
+    @Test
+    void willReturnNotFoundHttpStatus_whenImportDoesNotExist() throws Exception {
+        //when
+        ResultActions actions = mockMvc.perform(get("/recipes/imports/unknown"));
+
+        //then
+        actions.andExpect(status().isNotFound());
+    }
+
+    private static CreateRecipeDTO createRecipeDTO(String name) {
+        return CreateRecipeDTO.builder()
+                .categoryType(CategoryDTO.OTHER)
+                .cookingTime(25)
+                .preparationTime(10)
+                .servings(2)
+                .name(name)
+                .ingredients(List.of(IngredientDTO.builder()
+                        .description("Salt")
+                        .build()))
+                .instructions(List.of(InstructionDTO.builder()
+                        .description("Season to taste")
+                        .step(1)
+                        .build()))
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.km.recipe.cache;
+
+import com.km.recipe.domain.RecipeChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeCountCacheTest {
+
+    private final AtomicLong counts = new AtomicLong();
+
+    @Test
+    void willServeCachedCount_untilItExpires() {
+        //given
+        MutableClock clock = new MutableClock();
+        RecipeCountCache cache = new RecipeCountCache(Duration.ofSeconds(5), 10, clock);
+
+        //when
+        cache.get("servings=2", this::count);
+        clock.advance(Duration.ofSeconds(4));
+        long cached = cache.get("servings=2", this::count);
+
+        //then
+        assertThat(cached).isEqualTo(1);
+        assertThat(counts).hasValue(1);
+
+        //when
+        clock.advance(Duration.ofSeconds(2));
+
+        //then
+        assertThat(cache.get("servings=2", this::count)).isEqualTo(2);
+    }
+
+    @Test
+    void willDropCachedCounts_whenRecipeChanges() {
+        //given
+        RecipeCountCache cache = new RecipeCountCache(Duration.ofMinutes(1), 10, new MutableClock());
+        cache.get("", this::count);
+
+        //when
+        cache.onRecipeChanged(new RecipeChangedEvent(null, RecipeChangedEvent.Type.REMOVED));
+
+        //then
+        assertThat(cache.get("", this::count)).isEqualTo(2);
+    }
+
+    private long count() {
+        return counts.incrementAndGet();
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.EPOCH;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
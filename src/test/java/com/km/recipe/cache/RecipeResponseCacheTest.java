@@ -0,0 +1,74 @@
+package com.km.recipe.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.km.recipe.domain.RecipeChangedEvent;
+import com.km.recipe.dto.RecipeDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RecipeResponseCache cache = new RecipeResponseCache(objectMapper, DataSize.ofMegabytes(1), true);
+    private final UUID recipeId = UUID.randomUUID();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void willSerializeRecipeOnce_perVersion() {
+        //when
+        RecipeResponseCache.SerializedRecipe first = cache.get(recipeId, 1, () -> load(1));
+        RecipeResponseCache.SerializedRecipe second = cache.get(recipeId, 1, () -> load(1));
+
+        //then
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+
+        //when
+        RecipeResponseCache.SerializedRecipe updated = cache.get(recipeId, 2, () -> load(2));
+
+        //then
+        assertThat(updated.version()).isEqualTo(2);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void willReloadRecipe_onceItChanged() {
+        //given
+        cache.get(recipeId, 1, () -> load(1));
+
+        //when
+        cache.onRecipeChanged(new RecipeChangedEvent(recipeId, RecipeChangedEvent.Type.SAVED));
+        cache.get(recipeId, 1, () -> load(1));
+
+        //then
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void willHoldGzippedFormOfTheSameBody() throws IOException {
+        //when
+        RecipeResponseCache.SerializedRecipe serialized = cache.get(recipeId, 1, () -> load(1));
+
+        //then
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(serialized.gzipped()))) {
+            assertThat(in.readAllBytes()).isEqualTo(serialized.json());
+        }
+    }
+
+    private RecipeDTO load(long version) {
+        loads.incrementAndGet();
+        return RecipeDTO.builder()
+                .id(recipeId)
+                .name("Tomato soup")
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.km.recipe.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flight = new SingleFlight<>("recipe");
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void willShareOneLoad_betweenConcurrentCallersOfSameKey() throws Exception {
+        //given
+        List<Future<String>> calls = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < 8; i++) {
+            calls.add(executor.submit(() -> flight.execute("pumpkin", () -> blockingLoad("Pumpkin soup"))));
+        }
+        awaitCoalesced(7);
+        release.countDown();
+
+        //then
+        for (Future<String> call : calls) {
+            assertThat(call.get(5, TimeUnit.SECONDS)).isEqualTo("Pumpkin soup");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(flight.getExecutedCount()).isEqualTo(1);
+        assertThat(flight.getCoalescedCount()).isEqualTo(7);
+    }
+
+    @Test
+    void willShareFailure_andLoadAgainOnceItCompleted() throws Exception {
+        //given
+        Future<String> leader = executor.submit(() -> flight.execute("pumpkin", () -> {
+            blockingLoad(null);
+            throw new IllegalStateException("Database is down");
+        }));
+        // the follower must find the leader's load in flight, rather than start its own
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<String> follower = executor.submit(() -> flight.execute("pumpkin", () -> "unused"));
+        awaitCoalesced(1);
+
+        //when
+        release.countDown();
+
+        //then
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Database is down");
+        assertThat(flight.execute("pumpkin", () -> "Pumpkin soup")).isEqualTo("Pumpkin soup");
+        assertThat(flight.getExecutedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void willStartNewLoad_forCallersArrivingAfterKeyIsForgotten() throws Exception {
+        //given
+        Future<String> stale = executor.submit(() -> flight.execute("pumpkin", () -> blockingLoad("Pumpkin soup")));
+        while (loads.get() == 0) {
+            Thread.onSpinWait();
+        }
+
+        //when
+        flight.forget("pumpkin");
+        String fresh = flight.execute("pumpkin", () -> "Pumpkin broth");
+        release.countDown();
+
+        //then
+        assertThat(fresh).isEqualTo("Pumpkin broth");
+        assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo("Pumpkin soup");
+        assertThat(flight.getCoalescedCount()).isZero();
+    }
+
+    private String blockingLoad(String value) {
+        loads.incrementAndGet();
+        started.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+
+    private void awaitCoalesced(long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.getCoalescedCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(flight.getCoalescedCount()).isEqualTo(count);
+    }
+}
@@ -0,0 +1,219 @@
+package com.km.recipe.datasource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.km.recipe.domain.CategoryType;
+import com.km.recipe.domain.IdStrategy;
+import com.km.recipe.domain.Ingredient;
+import com.km.recipe.domain.Instruction;
+import com.km.recipe.domain.Recipe;
+import com.km.recipe.domain.repository.RecipeBatchRepository;
+import com.km.recipe.dto.*;
+import com.km.recipe.exceptions.RecipeNotFoundException;
+import com.km.recipe.service.contract.RecipeService;
+import com.km.recipe.util.RecipeSpecificationBuilder;
+import jakarta.persistence.EntityManagerFactory;
+import liquibase.integration.spring.SpringLiquibase;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * <p>Two unrelated H2 databases stand in for the primary and its replica. Nothing replicates between them, so where
+ * a recipe can be read from tells where the read was routed. Only the heartbeat is ever replicated, by the test, and
+ * the scheduled beats are far enough apart not to interfere.</p>
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary",
+        "recipe.datasource.replica.jdbc-url=jdbc:h2:mem:replica",
+        "recipe.datasource.replica.username=user",
+        "recipe.datasource.replica.password=pwd123",
+        "recipe.datasource.replica-heartbeat=1h"
+})
+@AutoConfigureMockMvc
+class ReadWriteRoutingTest {
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private ReplicaLag replicaLag;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        clear(primaryDataSource);
+        clear(replicaDataSource);
+        evictSecondLevelCache();
+    }
+
+    @Test
+    void willReadFromReplica_inReadOnlyTransactions_andWriteToPrimary() {
+        //given a recipe only the replica holds
+        replicateHeartbeat();
+        Recipe recipe = recipe("Replicated soup");
+        new RecipeBatchRepository(new JdbcTemplate(replicaDataSource), 10, IdStrategy.TIME_ORDERED)
+                .insertAll(List.of(recipe));
+
+        //when
+        RecipeDTO found = recipeService.findById(recipe.getId());
+
+        //then
+        assertThat(found.getName()).isEqualTo("Replicated soup");
+        assertThat(recipeService.findAll(new RecipeSpecificationBuilder().build(), PageRequest.of(0, 10))
+                .getContent()).extracting(RecipeDTO::getId).containsExactly(recipe.getId());
+        assertThat(new JdbcTemplate(primaryDataSource).queryForObject("SELECT count(*) FROM recipe", Long.class))
+                .isZero();
+    }
+
+    @Test
+    void willReadYourWrites_fromPrimary_untilReplicaHoldsTheWrite() {
+        //given
+        RecipeDTO created = recipeService.create(createRecipeDTO("Primary soup"));
+        evictSecondLevelCache();
+
+        //when
+        RecipeDTO found = recipeService.findById(created.getId());
+
+        //then
+        assertThat(found.getName()).isEqualTo("Primary soup");
+
+        //when the replica is measured to hold the write, it is read again, not holding the recipe here
+        replicateHeartbeat();
+        evictSecondLevelCache();
+
+        //then
+        assertThat(replicaLag.lag()).isNotNull();
+        assertThatThrownBy(() -> recipeService.findById(created.getId()))
+                .isInstanceOf(RecipeNotFoundException.class);
+    }
+
+    @Test
+    void willReadFromPrimary_whileReplicaLacksTheCallersLastWrite() throws Exception {
+        //given a write whose time is handed back to the caller
+        MvcResult result = mockMvc.perform(post("/recipes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(createRecipeDTO("Primary soup"))))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists(ReadYourWrites.WRITTEN_AT))
+                .andReturn();
+        JsonNode created = objectMapper.readTree(result.getResponse().getContentAsByteArray());
+        long writtenAt = Long.parseLong(result.getResponse().getHeader(ReadYourWrites.WRITTEN_AT));
+        replicateHeartbeat();
+        evictSecondLevelCache();
+
+        //then the caller's write is replicated, so it reads from the replica
+        mockMvc.perform(get("/recipes/{id}", created.get("id").asText())
+                        .header(ReadYourWrites.WRITTEN_AT, writtenAt))
+                .andExpect(status().isNotFound());
+
+        //when the caller last wrote, through another instance, after the beat the replica holds
+        //then it reads from the primary
+        mockMvc.perform(get("/recipes/{id}", created.get("id").asText())
+                        .header(ReadYourWrites.WRITTEN_AT, System.currentTimeMillis() + 60_000))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * <p>Applies the changelogs to the replica before the application starts reading from it, replication being
+     * what would bring the schema over otherwise</p>
+     */
+    @TestConfiguration
+    static class ReplicaSchemaConfig {
+
+        @Bean
+        InitializingBean replicaSchema(@Qualifier("replicaDataSource") DataSource replicaDataSource) {
+            return () -> {
+                SpringLiquibase liquibase = new SpringLiquibase();
+                liquibase.setDataSource(replicaDataSource);
+                liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.yaml");
+                liquibase.afterPropertiesSet();
+            };
+        }
+    }
+
+    private void evictSecondLevelCache() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    /**
+     * <p>Has the replica catch up with the primary's heartbeat, as replication would</p>
+     */
+    private void replicateHeartbeat() {
+        replicaLag.beat();
+        Long beat = new JdbcTemplate(primaryDataSource)
+                .queryForObject("SELECT beat FROM replica_heartbeat WHERE id = 1", Long.class);
+        new JdbcTemplate(replicaDataSource).update("UPDATE replica_heartbeat SET beat = ? WHERE id = 1", beat);
+        replicaLag.beat();
+    }
+
+    private static void clear(DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DELETE FROM recipe_ingredients");
+        jdbcTemplate.execute("DELETE FROM recipe_instructions");
+        jdbcTemplate.execute("DELETE FROM recipe");
+    }
+
+    private static CreateRecipeDTO createRecipeDTO(String name) {
+        return CreateRecipeDTO.builder()
+                .name(name)
+                .categoryType(CategoryDTO.VEGETARIAN)
+                .servings(2)
+                .preparationTime(10)
+                .cookingTime(20)
+                .ingredients(List.of(IngredientDTO.builder().description("Leeks").build()))
+                .instructions(List.of(InstructionDTO.builder().description("Simmer").step(1).build()))
+                .build();
+    }
+
+    private static Recipe recipe(String name) {
+        return Recipe.builder()
+                .name(name)
+                .servings(2)
+                .preparationTime(10)
+                .cookingTime(20)
+                .categoryType(CategoryType.VEGETARIAN)
+                .ingredients(new TreeSet<>(List.of(Ingredient.builder().description("Leeks").build())))
+                .instructions(new TreeSet<>(List.of(Instruction.builder().description("Simmer").step(1).build())))
+                .build();
+    }
+}
@@ -61,6 +61,18 @@ class RecipeTest {
         assertThat(recipe.getPreparationTime()).isEqualTo(10);
     }
 
+    @Test
+    void willDeriveTheSameNameKey_forNamesDifferingByCaseAndWhitespace() {
+        //when
+        String key = Recipe.nameKey("Tomato soup");
+
+        //then
+        assertThat(key).isEqualTo("tomato soup");
+        assertThat(Recipe.nameKey("  TOMATO \t soup ")).isEqualTo(key);
+        assertThat(Recipe.nameKey("Straße")).isEqualTo(Recipe.nameKey("STRASSE"));
+        assertThat(Recipe.nameKey(null)).isNull();
+    }
+
     private Ingredient ingredient(String description) {
         return Ingredient.builder()
                 .id(UUID.randomUUID())
@@ -0,0 +1,162 @@
+package com.km.recipe.domain.repository;
+
+import com.km.recipe.domain.CategoryType;
+import com.km.recipe.domain.Ingredient;
+import com.km.recipe.domain.Instruction;
+import com.km.recipe.domain.Recipe;
+import com.km.recipe.dto.CategoryDTO;
+import com.km.recipe.util.RecipeCursor;
+import com.km.recipe.util.RecipeSpecificationBuilder;
+import com.km.recipe.util.RecipeSpecificationBuilder.FilterMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * <p>Runs the list and lookup queries against the schema of the Liquibase changelogs and fails whenever the plan of
+ * one of their statements reads a whole table instead of going through an index</p>
+ */
+abstract class AbstractQueryPlanTest {
+
+    static final String STATEMENT_INSPECTOR = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+            "com.km.recipe.domain.repository.RecordingStatementInspector";
+
+    private static final String TABLE_SCAN = ".tableScan";
+    private static final CategoryType[] CATEGORIES = CategoryType.values();
+
+    @Autowired
+    private RecipeRepository repository;
+
+    @Autowired
+    private RecipeReadRepository readRepository;
+
+    @Autowired
+    private RecipeBatchRepository batchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            recipes.add(Recipe.builder()
+                    .name("Recipe " + i)
+                    .servings(1 + i % 8)
+                    .preparationTime(10)
+                    .cookingTime(20)
+                    .categoryType(CATEGORIES[i % CATEGORIES.length])
+                    .ingredients(new TreeSet<>(List.of(Ingredient.builder().description("Ingredient " + i).build())))
+                    .instructions(new TreeSet<>(List.of(Instruction.builder()
+                            .description("Instruction " + i)
+                            .step(1)
+                            .build())))
+                    .build());
+        }
+        batchRepository.insertAll(recipes);
+        RecordingStatementInspector.drain();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void willFilterByCategory_throughAnIndex() {
+        assertNoTableScan(new RecipeSpecificationBuilder()
+                .withCategory(CategoryDTO.VEGETARIAN)
+                .build());
+    }
+
+    @Test
+    void willFilterByServings_throughAnIndex() {
+        assertNoTableScan(new RecipeSpecificationBuilder()
+                .withServings(4)
+                .build());
+    }
+
+    @Test
+    void willFilterByCategoryAndServings_throughAnIndex() {
+        assertNoTableScan(new RecipeSpecificationBuilder()
+                .withCategory(CategoryDTO.BEEF)
+                .withServings(2)
+                .build());
+    }
+
+    @Test
+    void willCorrelateIngredientAndInstructionFilters_throughTheRecipeIdIndexes() {
+        assertNoTableScan(new RecipeSpecificationBuilder(null, FilterMode.EXISTS)
+                .withCategory(CategoryDTO.CHICKEN)
+                .withIncludedIngredients(List.of("ingredient"))
+                .withExcludedIngredients(List.of("salt"))
+                .withInstructions(List.of("instruction"))
+                .build());
+    }
+
+    @Test
+    void willFilterByRecipeId_throughThePrimaryKey() {
+        assertNoTableScan(new RecipeSpecificationBuilder()
+                .withRecipeId(UUID.randomUUID())
+                .build());
+    }
+
+    @Test
+    void willReadKeysetPages_throughTheCreationOrderIndex() {
+        //given
+        Specification<Recipe> specification = new RecipeSpecificationBuilder()
+                .withCursor(new RecipeCursor(Instant.now(), UUID.randomUUID()))
+                .build();
+
+        //when
+        readRepository.findSlice(specification, PageRequest.of(0, 10, RecipeCursor.SORT));
+
+        //then
+        assertPlans();
+    }
+
+    @Test
+    void willLookUpNames_throughTheNameKeyIndex() {
+        //when
+        repository.existsByName("recipe " + UUID.randomUUID());
+        repository.findByName("recipe " + UUID.randomUUID());
+        repository.existsByNameWithDifferentId("recipe 1", UUID.randomUUID());
+
+        //then
+        assertPlans();
+    }
+
+    private void assertNoTableScan(Specification<Recipe> specification) {
+        //when
+        readRepository.findSlice(specification, PageRequest.of(0, 10));
+        repository.count(specification);
+
+        //then
+        assertPlans();
+    }
+
+    private void assertPlans() {
+        List<String> queries = RecordingStatementInspector.drain().stream()
+                .filter(sql -> sql.regionMatches(true, 0, "select", 0, 6))
+                .toList();
+        assertThat(queries).isNotEmpty();
+        queries.forEach(sql -> assertThat(explain(sql)).as(sql).doesNotContain(TABLE_SCAN));
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.query(connection -> connection.prepareStatement("EXPLAIN " + sql),
+                rs -> rs.next() ? rs.getString(1) : null);
+    }
+}
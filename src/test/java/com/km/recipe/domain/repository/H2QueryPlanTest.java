@@ -0,0 +1,7 @@
+package com.km.recipe.domain.repository;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = AbstractQueryPlanTest.STATEMENT_INSPECTOR)
+class H2QueryPlanTest extends AbstractQueryPlanTest {
+}
@@ -0,0 +1,13 @@
+package com.km.recipe.domain.repository;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * <p>Same plans, with the changelogs applied to H2 running in PostgreSQL compatibility mode</p>
+ */
+@SpringBootTest(properties = {
+        AbstractQueryPlanTest.STATEMENT_INSPECTOR,
+        "spring.datasource.url=jdbc:h2:mem:pgmode;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"
+})
+class PostgresModeQueryPlanTest extends AbstractQueryPlanTest {
+}
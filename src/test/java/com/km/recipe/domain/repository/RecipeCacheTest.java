@@ -0,0 +1,216 @@
+package com.km.recipe.domain.repository;
+
+import com.km.recipe.domain.CategoryType;
+import com.km.recipe.domain.Ingredient;
+import com.km.recipe.domain.Instruction;
+import com.km.recipe.domain.Recipe;
+import com.km.recipe.dto.*;
+import com.km.recipe.exceptions.RecipeNotFoundException;
+import com.km.recipe.service.contract.RecipeService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class RecipeCacheTest {
+
+    @Autowired
+    private RecipeRepository repository;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Recipe recipe;
+
+    @BeforeEach
+    void setUp() {
+        recipe = repository.save(Recipe.builder()
+                .name("Tomato soup")
+                .servings(2)
+                .preparationTime(10)
+                .cookingTime(20)
+                .categoryType(CategoryType.VEGETARIAN)
+                .ingredients(new TreeSet<>(List.of(Ingredient.builder()
+                        .description("Tomatoes")
+                        .build())))
+                .instructions(new TreeSet<>(List.of(Instruction.builder()
+                        .description("Boil the tomatoes")
+                        .step(1)
+                        .build())))
+                .build());
+
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void willServeRepeatedLookupsById_fromSecondLevelCache() {
+        //given
+        recipeService.findById(recipe.getId());
+        statistics.clear();
+
+        //when
+        RecipeDTO dto = recipeService.findById(recipe.getId());
+
+        //then
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getCacheRegionStatistics("recipe").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getCacheRegionStatistics("recipe-ingredients").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getCacheRegionStatistics("recipe-instructions").getHitCount()).isEqualTo(1);
+        assertThat(dto.getIngredients()).extracting(IngredientDTO::getDescription).containsExactly("Tomatoes");
+        assertThat(dto.getInstructions()).extracting(InstructionDTO::getDescription).containsExactly("Boil the tomatoes");
+    }
+
+    @Test
+    void willServeCachedRecipesOfMultiGet_fromSecondLevelCache_andReadOthersInThreeStatements() {
+        //given
+        Recipe other = repository.save(Recipe.builder()
+                .name("Pea soup")
+                .servings(2)
+                .preparationTime(10)
+                .cookingTime(20)
+                .categoryType(CategoryType.VEGETARIAN)
+                .ingredients(new TreeSet<>(List.of(Ingredient.builder()
+                        .description("Peas")
+                        .build())))
+                .instructions(new TreeSet<>(List.of(Instruction.builder()
+                        .description("Boil the peas")
+                        .step(1)
+                        .build())))
+                .build());
+        recipeService.findById(recipe.getId());
+        statistics.clear();
+
+        //when
+        Map<UUID, RecipeDTO> recipes = recipeService.findAllById(List.of(other.getId(), recipe.getId(),
+                UUID.randomUUID()));
+
+        //then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(recipes).containsOnlyKeys(other.getId(), recipe.getId());
+        assertThat(recipes.get(other.getId()).getIngredients()).extracting(IngredientDTO::getDescription)
+                .containsExactly("Peas");
+        assertThat(recipes.get(recipe.getId()).getIngredients()).extracting(IngredientDTO::getDescription)
+                .containsExactly("Tomatoes");
+
+        //when
+        recipeService.findById(other.getId());
+        statistics.clear();
+        recipes = recipeService.findAllById(List.of(other.getId(), recipe.getId()));
+
+        //then
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(recipes).containsOnlyKeys(other.getId(), recipe.getId());
+    }
+
+    @Test
+    void willReturnCurrentState_afterIngredientAndInstructionMutations() {
+        //given
+        recipeService.findById(recipe.getId());
+        IngredientDTO tomatoes = IngredientDTO.builder()
+                .id(recipe.getIngredients().first().getId())
+                .description("Cherry tomatoes")
+                .build();
+
+        //when
+        recipeService.updateIngredients(recipe.getId(), List.of(tomatoes));
+        recipeService.addIngredients(recipe.getId(), List.of(IngredientDTO.builder()
+                .description("Basil")
+                .build()));
+        recipeService.addInstructions(recipe.getId(), List.of(InstructionDTO.builder()
+                .description("Blend")
+                .step(2)
+                .build()));
+        recipeService.deleteInstructions(recipe.getId(), List.of(recipe.getInstructions().first().getId()));
+
+        //then
+        RecipeDTO dto = recipeService.findById(recipe.getId());
+        assertThat(dto.getIngredients()).extracting(IngredientDTO::getDescription)
+                .containsExactly("Basil", "Cherry tomatoes");
+        assertThat(dto.getInstructions()).extracting(InstructionDTO::getDescription).containsExactly("Blend");
+    }
+
+    @Test
+    void willReturnCurrentState_afterRecipeUpdateAndDelete() {
+        //given
+        recipeService.findById(recipe.getId());
+
+        //when
+        recipeService.update(recipe.getId(), UpdateRecipeDTO.builder()
+                .name("Tomato broth")
+                .servings(4)
+                .preparationTime(10)
+                .cookingTime(20)
+                .build());
+
+        //then
+        assertThat(recipeService.findById(recipe.getId()).getName()).isEqualTo("Tomato broth");
+
+        //when
+        recipeService.delete(recipe.getId());
+
+        //then
+        assertThatThrownBy(() -> recipeService.findById(recipe.getId()))
+                .isInstanceOf(RecipeNotFoundException.class);
+    }
+
+    @Test
+    void willServeRepeatedNameLookups_fromQueryCache_untilRecipesChange() {
+        //given
+        assertThat(repository.existsByName("Pumpkin soup")).isFalse();
+        statistics.clear();
+
+        //when
+        boolean exists = repository.existsByName("Pumpkin soup");
+
+        //then
+        assertThat(exists).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryRegionStatistics(RecipeRepository.NAME_QUERY_REGION).getHitCount()).isEqualTo(1);
+
+        //when
+        recipeService.create(CreateRecipeDTO.builder()
+                .name("Pumpkin soup")
+                .servings(2)
+                .preparationTime(10)
+                .cookingTime(20)
+                .categoryType(CategoryDTO.VEGETARIAN)
+                .ingredients(List.of(IngredientDTO.builder()
+                        .description("Pumpkin")
+                        .build()))
+                .instructions(List.of(InstructionDTO.builder()
+                        .description("Roast the pumpkin")
+                        .step(1)
+                        .build()))
+                .build());
+
+        //then
+        assertThat(repository.existsByName("Pumpkin soup")).isTrue();
+        assertThat(repository.findByName("pumpkin soup")).isPresent();
+    }
+}
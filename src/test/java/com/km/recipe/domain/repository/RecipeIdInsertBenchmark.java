@@ -0,0 +1,98 @@
+package com.km.recipe.domain.repository;
+
+import com.km.recipe.domain.CategoryType;
+import com.km.recipe.domain.IdStrategy;
+import com.km.recipe.domain.Ingredient;
+import com.km.recipe.domain.Instruction;
+import com.km.recipe.domain.Recipe;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * <p>Compares the insert throughput of time-ordered ids against random ones, each recipe writing four rows. Run with
+ * {@code mvn test -Pbenchmark}, optionally overriding the number of recipes with {@code -Dbenchmark.recipes=500000}.</p>
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class RecipeIdInsertBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int CHUNK_SIZE = 10_000;
+    private static final int ROWS_PER_RECIPE = 4;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        clear();
+    }
+
+    @Test
+    void compareRandomAndTimeOrderedIds() {
+        int count = Integer.getInteger("benchmark.recipes", 250_000);
+        // warm up both paths
+        insert(IdStrategy.RANDOM, "Warm up random", 20_000);
+        insert(IdStrategy.TIME_ORDERED, "Warm up time ordered", 20_000);
+        clear();
+
+        double randomRate = insert(IdStrategy.RANDOM, "Random", count);
+        clear();
+        double timeOrderedRate = insert(IdStrategy.TIME_ORDERED, "Time ordered", count);
+
+        System.out.printf("rows=%d randomRowsPerSec=%.0f timeOrderedRowsPerSec=%.0f speedup=%.2fx%n",
+                count * ROWS_PER_RECIPE, randomRate, timeOrderedRate, timeOrderedRate / randomRate);
+        assertThat(timeOrderedRate).isGreaterThanOrEqualTo(randomRate);
+    }
+
+    /**
+     * <p>Inserts the recipes in chunks, as the batch endpoint and the importer do, returning the rows written per
+     * second</p>
+     */
+    private double insert(IdStrategy idStrategy, String prefix, int count) {
+        RecipeBatchRepository batchRepository = new RecipeBatchRepository(jdbcTemplate, BATCH_SIZE, idStrategy);
+        long elapsed = 0;
+        for (int from = 0; from < count; from += CHUNK_SIZE) {
+            List<Recipe> recipes = recipes(prefix, from, Math.min(from + CHUNK_SIZE, count));
+            long start = System.nanoTime();
+            batchRepository.insertAll(recipes);
+            elapsed += System.nanoTime() - start;
+        }
+        return count * ROWS_PER_RECIPE / (elapsed / 1_000_000_000.0);
+    }
+
+    private void clear() {
+        jdbcTemplate.execute("DELETE FROM recipe_ingredients");
+        jdbcTemplate.execute("DELETE FROM recipe_instructions");
+        jdbcTemplate.execute("DELETE FROM recipe");
+    }
+
+    private static List<Recipe> recipes(String prefix, int from, int to) {
+        List<Recipe> recipes = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            recipes.add(Recipe.builder()
+                    .name(prefix + " " + i)
+                    .servings(2)
+                    .preparationTime(10)
+                    .cookingTime(20)
+                    .categoryType(CategoryType.OTHER)
+                    .ingredients(new TreeSet<>(List.of(
+                            Ingredient.builder().description("Tomatoes").build(),
+                            Ingredient.builder().description("Onion").build())))
+                    .instructions(new TreeSet<>(List.of(Instruction.builder()
+                            .description("Simmer slowly")
+                            .step(1)
+                            .build())))
+                    .build());
+        }
+        return recipes;
+    }
+}
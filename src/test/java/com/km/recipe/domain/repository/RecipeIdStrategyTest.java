@@ -0,0 +1,78 @@
+package com.km.recipe.domain.repository;
+
+import com.km.recipe.domain.CategoryType;
+import com.km.recipe.domain.IdStrategy;
+import com.km.recipe.domain.Ingredient;
+import com.km.recipe.domain.Instruction;
+import com.km.recipe.domain.Recipe;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "recipe.id.strategy=time-ordered")
+class RecipeIdStrategyTest {
+
+    @Autowired
+    private RecipeRepository repository;
+
+    @Autowired
+    private RecipeBatchRepository batchRepository;
+
+    @Autowired
+    private IdStrategy idStrategy;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void willGenerateTimeOrderedIds_forSavedRecipesAndTheirChildren() {
+        //when
+        Recipe recipe = repository.save(recipe("Tomato soup"));
+
+        //then
+        assertThat(idStrategy).isEqualTo(IdStrategy.TIME_ORDERED);
+        assertThat(recipe.getId().version()).isEqualTo(7);
+        assertThat(recipe.getIngredients().first().getId().version()).isEqualTo(7);
+        assertThat(recipe.getInstructions().first().getId().version()).isEqualTo(7);
+    }
+
+    @Test
+    void willGenerateTimeOrderedIds_forBatchInsertedRecipesAndTheirChildren() {
+        //given
+        Recipe recipe = recipe("Pea soup");
+
+        //when
+        batchRepository.insertAll(List.of(recipe));
+
+        //then
+        assertThat(repository.findById(recipe.getId())).isPresent();
+        assertThat(recipe.getId().version()).isEqualTo(7);
+        assertThat(recipe.getIngredients().first().getId().version()).isEqualTo(7);
+        assertThat(recipe.getInstructions().first().getId().version()).isEqualTo(7);
+    }
+
+    private static Recipe recipe(String name) {
+        return Recipe.builder()
+                .name(name)
+                .servings(2)
+                .preparationTime(10)
+                .cookingTime(20)
+                .categoryType(CategoryType.VEGETARIAN)
+                .ingredients(new TreeSet<>(List.of(Ingredient.builder()
+                        .description("Tomatoes")
+                        .build())))
+                .instructions(new TreeSet<>(List.of(Instruction.builder()
+                        .description("Boil")
+                        .step(1)
+                        .build())))
+                .build();
+    }
+}
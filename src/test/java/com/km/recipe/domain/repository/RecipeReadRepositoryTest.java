@@ -0,0 +1,156 @@
+package com.km.recipe.domain.repository;
+
+import com.km.recipe.domain.CategoryType;
+import com.km.recipe.domain.Ingredient;
+import com.km.recipe.domain.Instruction;
+import com.km.recipe.domain.Recipe;
+import com.km.recipe.dto.RecipeDTO;
+import com.km.recipe.util.RecipeSpecificationBuilder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "recipe.export.fetch-size=64"
+})
+class RecipeReadRepositoryTest {
+
+    @Autowired
+    private RecipeRepository repository;
+
+    @Autowired
+    private RecipeReadRepository readRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        repository.saveAll(IntStream.range(0, 150)
+                .mapToObj(this::recipe)
+                .toList());
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    void willReadPageWithBothCollections_inAtMostThreeStatements(int pageSize) {
+        //when
+        Slice<RecipeDTO> slice = readRepository.findSlice(new RecipeSpecificationBuilder().build(), PageRequest.of(0, pageSize));
+
+        //then
+        assertThat(statistics.getPrepareStatementCount()).isBetween(1L, 3L);
+        assertThat(slice.getContent()).hasSize(pageSize);
+        assertThat(slice.hasNext()).isTrue();
+        assertThat(slice.getContent()).allSatisfy(recipe -> {
+            assertThat(recipe.getIngredients()).hasSize(2);
+            assertThat(recipe.getInstructions()).hasSize(2);
+        });
+    }
+
+    @Test
+    void willReturnRecipes_inTheOrderOfThePage() {
+        //when
+        Slice<RecipeDTO> slice = readRepository.findSlice(new RecipeSpecificationBuilder().build(),
+                PageRequest.of(1, 20, Sort.by("name")));
+
+        //then
+        assertThat(slice.getContent()).extracting(RecipeDTO::getName)
+                .isSortedAccordingTo(String::compareTo)
+                .hasSize(20);
+    }
+
+    @Test
+    void willScrollEveryRecipe_inBatchesOfTheFetchSize_withTwoStatementsPerBatch() {
+        //given
+        List<List<RecipeDTO>> batches = new ArrayList<>();
+
+        //when
+        transactionTemplate.executeWithoutResult(status ->
+                readRepository.scroll(new RecipeSpecificationBuilder().build(), batches::add));
+
+        //then
+        assertThat(batches).extracting(List::size).containsExactly(64, 64, 22);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1 + 2 * 3);
+        assertThat(batches.stream().flatMap(List::stream).toList())
+                .extracting(RecipeDTO::getCreatedDate)
+                .isSorted()
+                .hasSize(150);
+        assertThat(batches.get(2)).allSatisfy(recipe -> {
+            assertThat(recipe.getIngredients()).hasSize(2);
+            assertThat(recipe.getInstructions()).hasSize(2);
+        });
+    }
+
+    @Test
+    void willScrollEveryRecipe_once_whenJoinFilterRepeatsIt() {
+        //given
+        List<RecipeDTO> recipes = new ArrayList<>();
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> readRepository.scroll(
+                new RecipeSpecificationBuilder(null, RecipeSpecificationBuilder.FilterMode.JOIN)
+                        .withInstructions(List.of("e"))
+                        .build(),
+                recipes::addAll));
+
+        //then
+        assertThat(recipes).hasSize(150);
+        assertThat(recipes).extracting(RecipeDTO::getId).doesNotHaveDuplicates();
+    }
+
+    private Recipe recipe(int index) {
+        return Recipe.builder()
+                .name(String.format("Recipe %03d", index))
+                .servings(2)
+                .preparationTime(10)
+                .cookingTime(20)
+                .categoryType(CategoryType.OTHER)
+                .ingredients(new TreeSet<>(List.of(Ingredient.builder()
+                                .description("Tomatoes")
+                                .build(),
+                        Ingredient.builder()
+                                .description("Basil")
+                                .build())))
+                .instructions(new TreeSet<>(List.of(Instruction.builder()
+                                .description("Chop the tomatoes")
+                                .step(1)
+                                .build(),
+                        Instruction.builder()
+                                .description("Serve")
+                                .step(2)
+                                .build())))
+                .build();
+    }
+}
@@ -0,0 +1,190 @@
+package com.km.recipe.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.km.recipe.domain.RecipeImport;
+import com.km.recipe.domain.repository.RecipeImportRepository;
+import com.km.recipe.domain.repository.RecipeRepository;
+import com.km.recipe.dto.*;
+import com.km.recipe.exceptions.InvalidRequestException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "recipe.import.chunk-size=2")
+class RecipeImporterTest {
+
+    @Autowired
+    private RecipeImporter importer;
+
+    @Autowired
+    private RecipeRepository repository;
+
+    @Autowired
+    private RecipeImportRepository importRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+        importRepository.deleteAll();
+    }
+
+    @Test
+    void willImportValidRecords_inChunks_countingConflictsAndRejections() throws Exception {
+        //given
+        CreateRecipeDTO withoutIngredients = createRecipeDTO("Pumpkin soup");
+        withoutIngredients.setIngredients(List.of());
+        String ndjson = ndjson(createRecipeDTO("Beef stew"), createRecipeDTO("Chicken curry"), withoutIngredients,
+                createRecipeDTO("BEEF STEW"), createRecipeDTO("Lentil soup")) +
+                "{\"name\":\"Fish pie\",\"category\":\"SPICY\"}\n";
+
+        //when
+        RecipeImportDTO report = importer.importRecipes("recipes", stream(ndjson));
+
+        //then
+        assertThat(report.getStatus()).isEqualTo("COMPLETED");
+        assertThat(report.getRecords()).isEqualTo(6);
+        assertThat(report.getCreated()).isEqualTo(3);
+        assertThat(report.getConflicts()).isEqualTo(1);
+        assertThat(report.getRejected()).isEqualTo(2);
+        assertThat(report.getByteOffset()).isEqualTo(ndjson.getBytes(StandardCharsets.UTF_8).length - 1);
+        assertThat(repository.findAll()).extracting("name")
+                .containsExactlyInAnyOrder("Beef stew", "Chicken curry", "Lentil soup");
+        assertThat(repository.findByName("Chicken curry")).get()
+                .satisfies(recipe -> assertThat(recipe.getIngredients()).hasSize(2));
+    }
+
+    @Test
+    void willResumeStream_afterLastCommittedRecord() throws Exception {
+        //given
+        RecipeImport checkpoint = new RecipeImport("recipes");
+        checkpoint.setStatus(RecipeImport.Status.FAILED);
+        checkpoint.setRecordOffset(2);
+        checkpoint.setCreated(2);
+        importRepository.save(checkpoint);
+        String ndjson = ndjson(createRecipeDTO("Beef stew"), createRecipeDTO("Chicken curry"),
+                createRecipeDTO("Lentil soup"));
+
+        //when
+        RecipeImportDTO report = importer.importRecipes("recipes", stream(ndjson));
+
+        //then
+        assertThat(report.getStatus()).isEqualTo("COMPLETED");
+        assertThat(report.getRecords()).isEqualTo(3);
+        assertThat(report.getCreated()).isEqualTo(3);
+        assertThat(repository.findAll()).extracting("name").containsExactly("Lentil soup");
+    }
+
+    @Test
+    void willResumeFile_afterLastCommittedByte() throws Exception {
+        //given
+        String committed = "these bytes were committed by a previous run\n";
+        Path file = Files.writeString(directory.resolve("recipes.ndjson"), committed +
+                ndjson(createRecipeDTO("Lentil soup")));
+        RecipeImport checkpoint = new RecipeImport("recipes.ndjson");
+        checkpoint.setStatus(RecipeImport.Status.RUNNING);
+        checkpoint.setRecordOffset(4);
+        checkpoint.setByteOffset(committed.length());
+        importRepository.save(checkpoint);
+
+        //when
+        RecipeImportDTO report = importer.importRecipes("recipes.ndjson", file);
+
+        //then
+        assertThat(report.getStatus()).isEqualTo("COMPLETED");
+        assertThat(report.getRecords()).isEqualTo(5);
+        assertThat(report.getCreated()).isEqualTo(1);
+        assertThat(repository.findAll()).extracting("name").containsExactly("Lentil soup");
+    }
+
+    @Test
+    void willKeepCommittedChunks_whenSourceIsMalformed_andResumeAfterThem() throws Exception {
+        //given
+        String valid = ndjson(createRecipeDTO("Beef stew"), createRecipeDTO("Chicken curry"));
+        Path file = Files.writeString(directory.resolve("recipes.ndjson"), valid + "{\"name\": \n");
+
+        //when
+        assertThatThrownBy(() -> importer.importRecipes("recipes", file))
+                .isInstanceOf(InvalidRequestException.class);
+
+        //then
+        assertThat(importer.findImport("recipes"))
+                .satisfies(report -> assertThat(report.getStatus()).isEqualTo("FAILED"))
+                .satisfies(report -> assertThat(report.getRecords()).isEqualTo(2))
+                .satisfies(report -> assertThat(report.getFailure()).isNotBlank());
+        assertThat(repository.count()).isEqualTo(2);
+
+        //when
+        Files.writeString(file, valid + ndjson(createRecipeDTO("Lentil soup")));
+        RecipeImportDTO report = importer.importRecipes("recipes", file);
+
+        //then
+        assertThat(report.getStatus()).isEqualTo("COMPLETED");
+        assertThat(report.getCreated()).isEqualTo(3);
+        assertThat(report.getConflicts()).isZero();
+        assertThat(repository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void willNotRunCompletedImport_again() throws Exception {
+        //given
+        importer.importRecipes("recipes", stream(ndjson(createRecipeDTO("Beef stew"))));
+        repository.deleteAll();
+
+        //when
+        RecipeImportDTO report = importer.importRecipes("recipes", stream(ndjson(createRecipeDTO("Beef stew"))));
+
+        //then
+        assertThat(report.getStatus()).isEqualTo("COMPLETED");
+        assertThat(report.getCreated()).isEqualTo(1);
+        assertThat(repository.count()).isZero();
+    }
+
+    private String ndjson(CreateRecipeDTO... recipes) throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (CreateRecipeDTO recipe : recipes) {
+            ndjson.append(objectMapper.writeValueAsString(recipe)).append('\n');
+        }
+        return ndjson.toString();
+    }
+
+    private static ByteArrayInputStream stream(String ndjson) {
+        return new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static CreateRecipeDTO createRecipeDTO(String name) {
+        return CreateRecipeDTO.builder()
+                .categoryType(CategoryDTO.OTHER)
+                .cookingTime(25)
+                .preparationTime(10)
+                .servings(2)
+                .name(name)
+                .ingredients(List.of(IngredientDTO.builder()
+                                .description("Salt")
+                                .build(),
+                        IngredientDTO.builder()
+                                .description("Pepper")
+                                .build()))
+                .instructions(List.of(InstructionDTO.builder()
+                        .description("Season to taste")
+                        .step(1)
+                        .build()))
+                .build();
+    }
+}
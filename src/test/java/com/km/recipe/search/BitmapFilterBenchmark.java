@@ -0,0 +1,134 @@
+package com.km.recipe.search;
+
+import com.km.recipe.BenchmarkCatalogue;
+import com.km.recipe.domain.CategoryType;
+import com.km.recipe.domain.Recipe;
+import com.km.recipe.domain.repository.RecipeRepository;
+import com.km.recipe.dto.CategoryDTO;
+import com.km.recipe.util.RecipeSpecificationBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * <p>Compares category, servings and ingredient filters sent to the database as one predicate per filter against
+ * the same filters intersected as bitmaps first, which then send the recipes left in place of the category and
+ * servings predicates. Category and servings alone are sent as predicates either way, as a baseline. Only the results
+ * are asserted, the timings being printed for comparison. Run with {@code mvn test -Pbenchmark}, optionally overriding the
+ * number of recipes with {@code -Dbenchmark.recipes=1000000}.</p>
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class BitmapFilterBenchmark {
+
+    private static final List<String> INGREDIENTS = List.of("garlic", "onion", "butter", "carrot", "celery", "thyme",
+            "basil", "lemon", "ginger", "paprika", "rice", "beans");
+    private static final int ITERATIONS = 7;
+
+    @Autowired
+    private RecipeRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecipeIndexUpdater indexUpdater;
+
+    @Autowired
+    private IngredientIndex ingredientIndex;
+
+    @Autowired
+    private InstructionIndex instructionIndex;
+
+    @Autowired
+    private RecipeBitmapIndex bitmapIndex;
+
+    private BenchmarkCatalogue catalogue;
+
+    @BeforeEach
+    void setUp() {
+        catalogue = new BenchmarkCatalogue(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalogue.clear();
+        indexUpdater.initialize();
+    }
+
+    @Test
+    void comparePredicateAndBitmapFilters() {
+        int count = Integer.getInteger("benchmark.recipes", 100_000);
+        seed(count);
+
+        long start = System.nanoTime();
+        indexUpdater.initialize();
+        System.out.printf("recipes=%d indexBuildMs=%.0f%n", count, (System.nanoTime() - start) / 1_000_000.0);
+
+        Supplier<RecipeSpecificationBuilder> predicates = () -> new RecipeSpecificationBuilder(ingredientIndex,
+                instructionIndex, RecipeSpecificationBuilder.FilterMode.EXISTS);
+        Supplier<RecipeSpecificationBuilder> bitmaps = () -> new RecipeSpecificationBuilder(ingredientIndex,
+                instructionIndex, bitmapIndex, RecipeSpecificationBuilder.FilterMode.EXISTS);
+        Map<String, Function<RecipeSpecificationBuilder, RecipeSpecificationBuilder>> filters = new LinkedHashMap<>();
+        filters.put("category+servings", builder -> builder
+                .withCategory(CategoryDTO.BEEF)
+                .withServings(4));
+        filters.put("category+servings+ingredients", builder -> builder
+                .withCategory(CategoryDTO.BEEF)
+                .withServings(4)
+                .withIncludedIngredients(List.of("garlic"))
+                .withExcludedIngredients(List.of("butter")));
+        filters.put("servings+excludeIngredients", builder -> builder
+                .withServings(4)
+                .withExcludedIngredients(List.of("butter", "rice")));
+
+        for (Map.Entry<String, Function<RecipeSpecificationBuilder, RecipeSpecificationBuilder>> filter
+                : filters.entrySet()) {
+            Specification<Recipe> byPredicates = filter.getValue().apply(predicates.get()).build();
+            Specification<Recipe> byBitmaps = filter.getValue().apply(bitmaps.get()).build();
+            assertThat(total(byBitmaps)).isEqualTo(total(byPredicates));
+
+            double predicateFilterMs = median(() -> filter.getValue().apply(predicates.get()).build());
+            double bitmapFilterMs = median(() -> filter.getValue().apply(bitmaps.get()).build());
+            System.out.printf("recipes=%d filter=%s matching=%d predicateMedianMs=%.2f bitmapMedianMs=%.2f " +
+                            "speedup=%.1fx%n", count, filter.getKey(), total(byBitmaps), predicateFilterMs,
+                    bitmapFilterMs, predicateFilterMs / bitmapFilterMs);
+        }
+    }
+
+    private long total(Specification<Recipe> specification) {
+        return repository.findAll(specification, PageRequest.of(0, 20)).getTotalElements();
+    }
+
+    /**
+     * <p>Median time to build the filters and run the page and count queries</p>
+     */
+    private double median(Supplier<Specification<Recipe>> specification) {
+        return BenchmarkCatalogue.medianMillis(ITERATIONS, () -> total(specification.get()));
+    }
+
+    private void seed(int count) {
+        Random random = new Random(count);
+        CategoryType[] categories = CategoryType.values();
+        for (int i = 0; i < count; i++) {
+            CategoryType category = categories[random.nextInt(categories.length)];
+            int servings = 1 + random.nextInt(8);
+            List<String> picked = new ArrayList<>(INGREDIENTS);
+            Collections.shuffle(picked, random);
+            catalogue.add("Recipe " + i, category, servings, picked.subList(0, 5).stream()
+                    .map(ingredient -> "1 cup " + ingredient)
+                    .toList(), List.of());
+        }
+        catalogue.flush();
+    }
+}
@@ -0,0 +1,33 @@
+package com.km.recipe.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BkTreeTest {
+
+    @Test
+    void willFindWordsWithinTheEditDistance_only() {
+        //given
+        BkTree tree = new BkTree();
+        List.of("tomatoes", "potatoes", "tomato", "parmesan", "pepper", "paprika", "tomatoes")
+                .forEach(tree::add);
+
+        //then
+        assertThat(tree.size()).isEqualTo(6);
+        assertThat(tree.search("tomatoe", 1)).containsExactlyInAnyOrder("tomatoes", "tomato");
+        assertThat(tree.search("tomatoe", 3)).containsExactlyInAnyOrder("tomatoes", "tomato", "potatoes");
+        assertThat(tree.search("parmesean", 1)).containsExactly("parmesan");
+        assertThat(tree.search("basil", 2)).isEmpty();
+    }
+
+    @Test
+    void willComputeLevenshteinDistance_boundedByTheMaximum() {
+        //then
+        assertThat(BkTree.distance("kitten", "sitting", 10)).isEqualTo(3);
+        assertThat(BkTree.distance("kitten", "sitting", 1)).isEqualTo(2);
+        assertThat(BkTree.distance("", "abc", 5)).isEqualTo(3);
+    }
+}
@@ -0,0 +1,99 @@
+package com.km.recipe.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngredientIndexTest {
+
+    private IngredientIndex index;
+    private UUID stew;
+    private UUID salad;
+
+    @BeforeEach
+    void setUp() {
+        index = new IngredientIndex();
+        stew = UUID.randomUUID();
+        salad = UUID.randomUUID();
+
+        index.index(stew, Map.of(UUID.randomUUID(), "200g Beef cubes",
+                UUID.randomUUID(), "Something salty"));
+        index.index(salad, Map.of(UUID.randomUUID(), "Cucumber",
+                UUID.randomUUID(), "Sea salt"));
+    }
+
+    @Test
+    void willMatchSubstringsOfIngredientTokens() {
+        //then
+        assertThat(index.findMatchingAll(List.of("SALT"))).containsExactlyInAnyOrder(stew, salad);
+        assertThat(index.findMatchingAll(List.of("cube"))).containsExactly(stew);
+    }
+
+    @Test
+    void willMatchTermsSpanningSeveralWords_onlyWithinOneIngredient() {
+        //then
+        assertThat(index.findMatchingAll(List.of("beef cub"))).containsExactly(stew);
+        assertThat(index.findMatchingAll(List.of("cubes something"))).isEmpty();
+    }
+
+    @Test
+    void willOnlyNarrowTermsHoldingATrigram() {
+        //then
+        assertThat(IngredientIndex.canNarrow(List.of("salt", "BEE"))).isTrue();
+        assertThat(IngredientIndex.canNarrow(List.of("salt", "sa"))).isFalse();
+        assertThat(IngredientIndex.canNarrow(List.of(""))).isFalse();
+    }
+
+    @Test
+    void willRequireEveryTerm_whenMatchingAll_andAnyTerm_whenMatchingAny() {
+        //then
+        assertThat(index.findMatchingAll(List.of("salt", "cucumber"))).containsExactly(salad);
+        assertThat(index.findMatchingAny(List.of("beef", "cucumber"))).containsExactlyInAnyOrder(stew, salad);
+    }
+
+    @Test
+    void willReflectUpdatedAndRemovedRecipes() {
+        //given
+        UUID ingredientId = UUID.randomUUID();
+        index.index(salad, Map.of(ingredientId, "Cucumber"));
+
+        //then
+        assertThat(index.findMatchingAll(List.of("salt"))).containsExactly(stew);
+
+        //when
+        index.index(salad, Map.of(ingredientId, "Tomatoes"));
+        index.remove(stew);
+
+        //then
+        assertThat(index.findMatchingAny(List.of("salt", "cucumber"))).isEmpty();
+        assertThat(index.findMatchingAll(List.of("tomato"))).containsExactly(salad);
+    }
+
+    @Test
+    void willMatchMisspelledTerms_throughTheirExpansions_whenFuzzy() {
+        //given
+        UUID pasta = UUID.randomUUID();
+        index.index(pasta, Map.of(UUID.randomUUID(), "Grated Parmesan", UUID.randomUUID(), "Cherry tomatoes"));
+
+        //then
+        assertThat(index.findMatchingAll(List.of("parmesean"))).isEmpty();
+        assertThat(index.expand("Parmesean")).containsExactly("parmesean", "parmesan");
+        assertThat(index.findMatchingAllFuzzy(List.of("parmesean", "tomatos"))).containsExactly(pasta);
+        assertThat(index.findMatchingAnyFuzzy(List.of("cucmber", "beef cubs"))).containsExactlyInAnyOrder(stew, salad);
+    }
+
+    @Test
+    void willNotExpandToWordsOfRemovedRecipes() {
+        //when
+        index.remove(salad);
+
+        //then
+        assertThat(index.expand("cucmber")).containsExactly("cucmber");
+        assertThat(index.findMatchingAnyFuzzy(List.of("cucmber"))).isEmpty();
+    }
+}
@@ -0,0 +1,57 @@
+package com.km.recipe.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RadixTreeTest {
+
+    private RadixTree tree;
+
+    @BeforeEach
+    void setUp() {
+        tree = new RadixTree();
+        tree.add("tomatoes", "Tomatoes", 5);
+        tree.add("tomato paste", "Tomato paste", 2);
+        tree.add("tomatillo", "Tomatillo", 2);
+        tree.add("tofu", "Tofu", 7);
+        tree.add("thyme", "Thyme", 1);
+    }
+
+    @Test
+    void willReturnCompletionsOfThePrefix_byDescendingWeight_thenKey() {
+        //then
+        assertThat(tree.top("to", 10)).extracting(RadixTree.Entry::value)
+                .containsExactly("Tofu", "Tomatoes", "Tomatillo", "Tomato paste");
+        assertThat(tree.top("tomat", 2)).extracting(RadixTree.Entry::value)
+                .containsExactly("Tomatoes", "Tomatillo");
+        assertThat(tree.top("tomato", 10)).extracting(RadixTree.Entry::weight)
+                .containsExactly(5, 2);
+        assertThat(tree.top("", 1)).extracting(RadixTree.Entry::value).containsExactly("Tofu");
+        assertThat(tree.top("tomatoess", 10)).isEmpty();
+        assertThat(tree.top("basil", 10)).isEmpty();
+    }
+
+    @Test
+    void willReflectWeightChanges_andDropEntriesWithoutWeight() {
+        //when
+        tree.add("tofu", "Tofu", -7);
+        tree.add("tomatillo", "Tomatillo", 4);
+        tree.add("tomatoes", "Tomatoes", -1);
+
+        //then
+        assertThat(tree.top("to", 10)).extracting(RadixTree.Entry::value)
+                .containsExactly("Tomatillo", "Tomatoes", "Tomato paste");
+        assertThat(tree.top("tof", 10)).isEmpty();
+
+        //when
+        tree.add("tomato paste", null, -2);
+        tree.add("tomatillo", null, -6);
+        tree.add("tomato", "Tomato", 1);
+
+        //then
+        assertThat(tree.top("tomat", 10)).extracting(RadixTree.Entry::value)
+                .containsExactly("Tomatoes", "Tomato");
+    }
+}
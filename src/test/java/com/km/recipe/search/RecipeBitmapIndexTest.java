@@ -0,0 +1,63 @@
+package com.km.recipe.search;
+
+import com.km.recipe.domain.CategoryType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeBitmapIndexTest {
+
+    private final UUID stew = UUID.randomUUID();
+    private final UUID roast = UUID.randomUUID();
+    private final UUID curry = UUID.randomUUID();
+    private RecipeBitmapIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RecipeBitmapIndex();
+        index.rebuild(Map.of(
+                stew, new RecipeBitmapIndex.Facets(CategoryType.BEEF, 4),
+                roast, new RecipeBitmapIndex.Facets(CategoryType.BEEF, 6),
+                curry, new RecipeBitmapIndex.Facets(CategoryType.CHICKEN, 4)));
+    }
+
+    @Test
+    void willIntersectCategoryServingsAndRecipeSets() {
+        //when
+        RoaringBitmap beefForFour = RoaringBitmap.and(index.withCategory(CategoryType.BEEF), index.withServings(4));
+        RoaringBitmap forFour = RoaringBitmap.andNot(index.withServings(4), index.toBitmap(List.of(stew)));
+
+        //then
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.toIds(beefForFour)).containsExactly(stew);
+        assertThat(index.toIds(forFour)).containsExactly(curry);
+        assertThat(index.toIds(index.withCategory(CategoryType.VEGETARIAN))).isEmpty();
+        assertThat(index.toIds(index.withServings(2))).isEmpty();
+    }
+
+    @Test
+    void willMoveRecipesBetweenBitmaps_andNotResolveRemovedRecipes() {
+        //given
+        RoaringBitmap beefBefore = index.withCategory(CategoryType.BEEF);
+        UUID salad = UUID.randomUUID();
+
+        //when
+        index.index(stew, new RecipeBitmapIndex.Facets(CategoryType.CHICKEN, 2));
+        index.remove(roast);
+        index.index(salad, new RecipeBitmapIndex.Facets(CategoryType.VEGETARIAN, 6));
+
+        //then
+        assertThat(index.toIds(index.withCategory(CategoryType.BEEF))).isEmpty();
+        assertThat(index.toIds(index.withCategory(CategoryType.CHICKEN))).containsExactlyInAnyOrder(stew, curry);
+        assertThat(index.toIds(index.withServings(2))).containsExactly(stew);
+        assertThat(index.toIds(index.withServings(6))).containsExactly(salad);
+        assertThat(index.toIds(beefBefore)).containsExactly(stew);
+        assertThat(index.toBitmap(List.of(roast)).isEmpty()).isTrue();
+    }
+}
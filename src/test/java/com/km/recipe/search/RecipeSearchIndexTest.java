@@ -0,0 +1,69 @@
+package com.km.recipe.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeSearchIndexTest {
+
+    private RecipeSearchIndex index;
+    private UUID stew;
+    private UUID soup;
+    private UUID salad;
+
+    @BeforeEach
+    void setUp() {
+        index = new RecipeSearchIndex();
+        stew = UUID.randomUUID();
+        soup = UUID.randomUUID();
+        salad = UUID.randomUUID();
+
+        index.rebuild(Map.of(
+                stew, new RecipeSearchIndex.RecipeText("Beef stew", List.of("200g Beef cubes", "Onions",
+                        "Brown the beef", "Simmer slowly")),
+                soup, new RecipeSearchIndex.RecipeText("Tomato soup", List.of("Tomatoes", "Beef stock",
+                        "Simmer the tomatoes")),
+                salad, new RecipeSearchIndex.RecipeText("Garden salad", List.of("Cucumber", "Tomatoes",
+                        "Slice the cucumber"))));
+    }
+
+    @Test
+    void willRankRecipesMentioningTheTermMore_andInTheirName_first() {
+        //then
+        assertThat(recipeIds(index.search("beef"))).containsExactly(stew, soup);
+        assertThat(recipeIds(index.search("TOMATO soup"))).containsExactly(soup);
+    }
+
+    @Test
+    void willRankRecipesMatchingMoreTerms_first() {
+        //then
+        assertThat(recipeIds(index.search("tomatoes cucumber"))).containsExactly(salad, soup);
+    }
+
+    @Test
+    void willReturnNothing_whenNoTermMatches() {
+        //then
+        assertThat(index.search("pumpkin")).isExhausted();
+        assertThat(index.search("  ,. ")).isExhausted();
+    }
+
+    @Test
+    void willReflectUpdatesAndRemovals() {
+        //when
+        index.index(salad, new RecipeSearchIndex.RecipeText("Beef salad", List.of("Roast beef", "Cucumber")));
+        index.remove(stew);
+
+        //then
+        assertThat(recipeIds(index.search("beef"))).containsExactly(salad, soup);
+        assertThat(recipeIds(index.search("simmer"))).containsExactly(soup);
+    }
+
+    private static List<UUID> recipeIds(Iterator<RecipeSearchIndex.Hit> hits) {
+        List<UUID> recipeIds = new ArrayList<>();
+        hits.forEachRemaining(hit -> recipeIds.add(hit.recipeId()));
+        return recipeIds;
+    }
+}
@@ -0,0 +1,79 @@
+package com.km.recipe.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * <p>Measures the latency of the top ten completions of short prefixes, as typed in a search box, over a catalogue
+ * of made up recipe names and ingredients. Run with {@code mvn test -Pbenchmark}, optionally overriding the number
+ * of recipes with {@code -Dbenchmark.recipes=1000000}.</p>
+ */
+class SuggestionBenchmark {
+
+    private static final int QUERIES = 200_000;
+
+    @Test
+    void measureSuggestionLatency() {
+        int count = Integer.getInteger("benchmark.recipes", 500_000);
+        Random random = new Random(count);
+        List<String> vocabulary = vocabulary(random, 20_000);
+        List<String> products = vocabulary.subList(0, 5000);
+
+        SuggestionIndex index = new SuggestionIndex();
+        Map<UUID, String> names = new HashMap<>();
+        Map<UUID, List<String>> ingredients = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            UUID recipeId = UUID.randomUUID();
+            names.put(recipeId, vocabulary.get(random.nextInt(vocabulary.size())) + " "
+                    + vocabulary.get(random.nextInt(vocabulary.size())) + " " + i);
+            List<String> descriptions = new ArrayList<>();
+            for (int j = 0; j < 5; j++) {
+                // a few ingredients are used by most recipes, as salt and onions are
+                descriptions.add(products.get((int) (products.size() * Math.pow(random.nextDouble(), 3))));
+            }
+            ingredients.put(recipeId, descriptions);
+        }
+        long start = System.nanoTime();
+        index.rebuild(names, ingredients);
+        System.out.printf("recipes=%d buildMs=%.0f%n", count, (System.nanoTime() - start) / 1_000_000.0);
+
+        for (SuggestionIndex.Field field : SuggestionIndex.Field.values()) {
+            List<String> prefixes = new ArrayList<>();
+            for (int i = 0; i < QUERIES; i++) {
+                String word = vocabulary.get(random.nextInt(field == SuggestionIndex.Field.NAME
+                        ? vocabulary.size() : products.size()));
+                prefixes.add(word.substring(0, 1 + random.nextInt(Math.min(4, word.length()))));
+            }
+            prefixes.subList(0, QUERIES / 4).forEach(prefix -> index.suggest(field, prefix, 10));
+
+            long[] latencies = new long[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                long queryStart = System.nanoTime();
+                index.suggest(field, prefixes.get(i), 10);
+                latencies[i] = System.nanoTime() - queryStart;
+            }
+            Arrays.sort(latencies);
+            double p50 = latencies[QUERIES / 2] / 1000.0;
+            double p99 = latencies[QUERIES * 99 / 100] / 1000.0;
+            System.out.printf("recipes=%d field=%s p50Us=%.1f p99Us=%.1f maxUs=%.1f%n",
+                    count, field, p50, p99, latencies[QUERIES - 1] / 1000.0);
+            assertThat(p99).isLessThan(1000);
+        }
+    }
+
+    private static List<String> vocabulary(Random random, int size) {
+        Set<String> words = new LinkedHashSet<>();
+        while (words.size() < size) {
+            StringBuilder word = new StringBuilder();
+            int length = 4 + random.nextInt(6);
+            for (int i = 0; i < length; i++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words.add(word.toString());
+        }
+        return new ArrayList<>(words);
+    }
+}
@@ -0,0 +1,149 @@
+package com.km.recipe.search;
+
+import com.km.recipe.BenchmarkCatalogue;
+import com.km.recipe.domain.CategoryType;
+import com.km.recipe.domain.Recipe;
+import com.km.recipe.domain.repository.RecipeRepository;
+import com.km.recipe.util.RecipeSpecificationBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * <p>Compares ingredient and instruction filters resolved by {@code LIKE} predicates alone against the same filters
+ * narrowed down by the trigram indexes first. Descriptions are drawn from a vocabulary of made up words, so that
+ * terms are as selective as they would be in a real catalogue. Run with {@code mvn test -Pbenchmark}, optionally
+ * overriding the number of recipes with {@code -Dbenchmark.recipes=1000000}.</p>
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class TrigramFilterBenchmark {
+
+    private static final int VOCABULARY_SIZE = 5000;
+    private static final int ITERATIONS = 7;
+
+    @Autowired
+    private RecipeRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecipeIndexUpdater indexUpdater;
+
+    @Autowired
+    private IngredientIndex ingredientIndex;
+
+    @Autowired
+    private InstructionIndex instructionIndex;
+
+    private BenchmarkCatalogue catalogue;
+
+    @BeforeEach
+    void setUp() {
+        catalogue = new BenchmarkCatalogue(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalogue.clear();
+        indexUpdater.initialize();
+    }
+
+    @Test
+    void compareLikeAndTrigramFilters() {
+        int count = Integer.getInteger("benchmark.recipes", 100_000);
+        List<String> vocabulary = vocabulary();
+        seed(vocabulary, count);
+
+        long start = System.nanoTime();
+        indexUpdater.initialize();
+        System.out.printf("recipes=%d indexBuildMs=%.0f%n", count, (System.nanoTime() - start) / 1_000_000.0);
+
+        // a whole word and a fragment of another one, which must match by substring
+        List<String> ingredients = List.of(vocabulary.get(7), vocabulary.get(11).substring(1, 5));
+        List<String> instructions = List.of(vocabulary.get(3).substring(0, 4));
+
+        Supplier<RecipeSpecificationBuilder> like = RecipeSpecificationBuilder::new;
+        Supplier<RecipeSpecificationBuilder> trigram = () -> new RecipeSpecificationBuilder(ingredientIndex,
+                instructionIndex, RecipeSpecificationBuilder.FilterMode.EXISTS);
+
+        double likeMs = 0;
+        double trigramMs = 0;
+        for (String filter : List.of("withIngredients", "excludeIngredients", "instructions")) {
+            double likeFilterMs = median(filter(like.get(), filter, ingredients, instructions));
+            double trigramFilterMs = median(filter(trigram.get(), filter, ingredients, instructions));
+            assertThat(total(filter(trigram.get(), filter, ingredients, instructions)))
+                    .isEqualTo(total(filter(like.get(), filter, ingredients, instructions)));
+            System.out.printf("recipes=%d filter=%s likeMedianMs=%.2f trigramMedianMs=%.2f speedup=%.1fx%n",
+                    count, filter, likeFilterMs, trigramFilterMs, likeFilterMs / trigramFilterMs);
+            likeMs += likeFilterMs;
+            trigramMs += trigramFilterMs;
+        }
+        assertThat(trigramMs).isLessThan(likeMs);
+    }
+
+    private static Specification<Recipe> filter(RecipeSpecificationBuilder builder, String filter,
+                                                List<String> ingredients, List<String> instructions) {
+        return switch (filter) {
+            case "withIngredients" -> builder.withIncludedIngredients(ingredients).build();
+            case "excludeIngredients" -> builder.withExcludedIngredients(ingredients).build();
+            default -> builder.withInstructions(instructions).build();
+        };
+    }
+
+    private long total(Specification<Recipe> specification) {
+        return repository.findAll(specification, PageRequest.of(0, 20)).getTotalElements();
+    }
+
+    private double median(Specification<Recipe> specification) {
+        return BenchmarkCatalogue.medianMillis(ITERATIONS, () -> total(specification));
+    }
+
+    private void seed(List<String> vocabulary, int count) {
+        Random random = new Random(count);
+        for (int i = 0; i < count; i++) {
+            List<String> ingredients = new ArrayList<>();
+            for (int ingredient = 0; ingredient < 5; ingredient++) {
+                ingredients.add(phrase(vocabulary, random, 2) + " " + ingredient);
+            }
+            List<String> instructions = new ArrayList<>();
+            for (int step = 1; step <= 3; step++) {
+                instructions.add(phrase(vocabulary, random, 5) + " " + step);
+            }
+            catalogue.add("Recipe " + i, CategoryType.OTHER, 1 + random.nextInt(8), ingredients, instructions);
+        }
+        catalogue.flush();
+    }
+
+    private static String phrase(List<String> vocabulary, Random random, int words) {
+        StringJoiner phrase = new StringJoiner(" ");
+        for (int i = 0; i < words; i++) {
+            phrase.add(vocabulary.get(random.nextInt(vocabulary.size())));
+        }
+        return phrase.toString();
+    }
+
+    private static List<String> vocabulary() {
+        Random random = new Random(VOCABULARY_SIZE);
+        Set<String> words = new LinkedHashSet<>();
+        while (words.size() < VOCABULARY_SIZE) {
+            StringBuilder word = new StringBuilder();
+            int length = 6 + random.nextInt(4);
+            for (int i = 0; i < length; i++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words.add(word.toString());
+        }
+        return new ArrayList<>(words);
+    }
+}
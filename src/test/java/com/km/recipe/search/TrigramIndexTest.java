@@ -0,0 +1,56 @@
+package com.km.recipe.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+    private UUID stew;
+    private UUID salad;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        stew = UUID.randomUUID();
+        salad = UUID.randomUUID();
+
+        index.index(stew, List.of("Chopped onions", "Simmer slowly"));
+        index.index(salad, List.of("Chop the cucumber"));
+    }
+
+    @Test
+    void willReturnEveryRecipeContainingTheTerm_amongTheCandidates() {
+        //then
+        assertThat(index.findCandidates("CHOP")).hasValueSatisfying(candidates ->
+                assertThat(candidates).containsExactlyInAnyOrder(stew, salad));
+        assertThat(index.findCandidates("simmer")).hasValueSatisfying(candidates ->
+                assertThat(candidates).containsExactly(stew));
+        assertThat(index.findCandidates("roast")).hasValueSatisfying(candidates ->
+                assertThat(candidates).isEmpty());
+    }
+
+    @Test
+    void willNotNarrowTerms_shorterThanATrigram() {
+        //then
+        assertThat(index.findCandidates("ch")).isEmpty();
+    }
+
+    @Test
+    void willReflectUpdatesAndRemovals() {
+        //when
+        index.index(salad, List.of("Slice the cucumber"));
+        index.remove(stew);
+
+        //then
+        assertThat(index.findCandidates("chop")).hasValueSatisfying(candidates ->
+                assertThat(candidates).isEmpty());
+        assertThat(index.findCandidates("slice")).hasValueSatisfying(candidates ->
+                assertThat(candidates).containsExactly(salad));
+    }
+}
@@ -6,8 +6,15 @@ import com.km.recipe.dto.*;
 import com.km.recipe.dto.page.RecipePage;
 import com.km.recipe.exceptions.InvalidRequestException;
 import com.km.recipe.exceptions.RecipeNotFoundException;
+import com.km.recipe.exceptions.RecipePreconditionFailedException;
 import com.km.recipe.exceptions.RecipeViolationException;
+import com.km.recipe.search.IngredientIndex;
+import com.km.recipe.search.InstructionIndex;
+import com.km.recipe.search.RecipeBitmapIndex;
 import com.km.recipe.util.RecipeSpecificationBuilder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,7 +28,7 @@ import java.util.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class RecipeServiceTest {
 
     @Autowired
@@ -30,6 +37,18 @@ class RecipeServiceTest {
     @Autowired
     private RecipeService recipeService;
 
+    @Autowired
+    private IngredientIndex ingredientIndex;
+
+    @Autowired
+    private InstructionIndex instructionIndex;
+
+    @Autowired
+    private RecipeBitmapIndex bitmapIndex;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
 
     @AfterEach
     void tearDown() {
@@ -108,6 +127,65 @@ class RecipeServiceTest {
                 .hasMessage("Recipe with name: " + recipeDTO.getName() + ", already exists");
     }
 
+    @Test
+    void willThrowRecipeViolationException_fromTheNameKeyConstraint_whenNameDiffersByCaseAndWhitespace() {
+        //given
+        createRecipeWithIngredients("Chicken curry", 1);
+        CreateRecipeDTO recipeDTO = CreateRecipeDTO.builder()
+                .categoryType(CategoryDTO.CHICKEN)
+                .cookingTime(25)
+                .preparationTime(10)
+                .servings(3)
+                .name("  CHICKEN   curry ")
+                .ingredients(List.of(IngredientDTO.builder()
+                        .description("Chicken thighs")
+                        .build()))
+                .instructions(List.of(InstructionDTO.builder()
+                        .description("Simmer")
+                        .step(1)
+                        .build()))
+                .build();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        //when
+        assertThatThrownBy(() -> recipeService.create(recipeDTO))
+                .isInstanceOf(RecipeViolationException.class)
+                .hasMessage("Recipe with name: " + recipeDTO.getName() + ", already exists");
+
+        //then the name was never looked up before inserting
+        assertThat(statistics.getQueryExecutionCount()).isZero();
+        assertThat(repository.findByName("chicken curry")).get()
+                .extracting(Recipe::getNameKey)
+                .isEqualTo("chicken curry");
+    }
+
+    @Test
+    void willThrowRecipeViolationException_fromTheNameKeyConstraint_whenUpdatingToATakenName() {
+        //given
+        createRecipeWithIngredients("Chicken curry", 1);
+        Recipe recipe = createRecipeWithIngredients("Beef curry", 1);
+        UpdateRecipeDTO updateRecipeDTO = UpdateRecipeDTO.builder()
+                .name(" chicken   CURRY")
+                .build();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        //when
+        UUID recipeId = recipe.getId();
+        assertThatThrownBy(() -> recipeService.update(recipeId, updateRecipeDTO))
+                .isInstanceOf(RecipeViolationException.class)
+                .hasMessage("Recipe with name: " + updateRecipeDTO.getName() + ", already exists");
+
+        //then the name was never looked up before updating
+        assertThat(statistics.getQueryExecutionCount()).isZero();
+        assertThat(repository.findById(recipeId)).get()
+                .extracting(Recipe::getName)
+                .isEqualTo("Beef curry");
+    }
+
     @Test
     void willUpdateRecipeDetails() {
         //given
@@ -579,6 +657,232 @@ class RecipeServiceTest {
         assertThat(recipeDTO.getName()).isEqualTo("Classic beef");
     }
 
+    @Test
+    void willExcludeRecipe_whenAnyOfItsIngredientsMatches_inExistsFilterMode() {
+        //given
+        createRecipe("Classic Chicken", 5, 2, 10,
+                CategoryType.CHICKEN,
+                new TreeSet<>(Set.of(Ingredient.builder()
+                                .description("5 Tomatoes")
+                                .build(),
+                        Ingredient.builder()
+                                .description("Test vinegar")
+                                .build())),
+                new TreeSet<>(Set.of(Instruction.builder()
+                        .step(1)
+                        .description("Chop the tomatoes")
+                        .build())));
+
+        //when
+        Specification<Recipe> excluding = new RecipeSpecificationBuilder(null, RecipeSpecificationBuilder.FilterMode.EXISTS)
+                .withExcludedIngredients(List.of("VINEGAR"))
+                .build();
+        Specification<Recipe> including = new RecipeSpecificationBuilder(null, RecipeSpecificationBuilder.FilterMode.EXISTS)
+                .withIncludedIngredients(List.of("tomato", "vinegar"))
+                .withInstructions(List.of("chop"))
+                .build();
+
+        //then
+        assertThat(recipeService.findAll(excluding, PageRequest.of(0, 5)).getTotalElements()).isZero();
+        assertThat(recipeService.findAll(including, PageRequest.of(0, 5)).getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    void willResolveIngredientFilters_fromIngredientIndex_afterIngredientWrites() {
+        //given
+        SortedSet<Instruction> instructions = new TreeSet<>(List.of(Instruction.builder()
+                .description("Chop the tomatoes")
+                .step(1)
+                .build()));
+
+        SortedSet<Ingredient> ingredients = new TreeSet<>(Set.of(Ingredient.builder()
+                .description("5 Tomatoes")
+                .build()));
+
+        //and
+        Recipe recipe = createRecipe("Classic Chicken", 5, 2, 10,
+                CategoryType.CHICKEN, ingredients, instructions);
+        Ingredient tomatoes = recipe.getIngredients().first();
+
+        //when
+        recipeService.addIngredients(recipe.getId(), List.of(IngredientDTO.builder()
+                .description("Sea salt")
+                .build()));
+        recipeService.updateIngredients(recipe.getId(), List.of(IngredientDTO.builder()
+                .id(tomatoes.getId())
+                .description("Cherry tomatoes")
+                .build()));
+
+        //then
+        assertThat(ingredientIndex.isReady()).isTrue();
+        assertThat(recipeService.findAll(new RecipeSpecificationBuilder(ingredientIndex)
+                .withIncludedIngredients(List.of("SALT", "cherry"))
+                .build(), PageRequest.of(0, 5)).getTotalElements()).isEqualTo(1);
+
+        //when
+        recipeService.deleteIngredients(recipe.getId(), List.of(tomatoes.getId()));
+
+        //then
+        assertThat(recipeService.findAll(new RecipeSpecificationBuilder(ingredientIndex)
+                .withIncludedIngredients(List.of("cherry"))
+                .build(), PageRequest.of(0, 5)).getTotalElements()).isZero();
+        assertThat(recipeService.findAll(new RecipeSpecificationBuilder(ingredientIndex)
+                .withExcludedIngredients(List.of("tomato"))
+                .build(), PageRequest.of(0, 5)).getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    void willFallBackToSqlPredicates_whenIndexMatchesTooManyRecipesToList() {
+        //given
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i <= 1000; i++) {
+            recipes.add(recipe("Salted " + i, "Sea salt"));
+        }
+        recipes.add(recipe("Peppered", "Black pepper"));
+        recipeService.insertAll(recipes);
+
+        //then
+        assertThat(ingredientIndex.isReady()).isTrue();
+        assertThat(recipeService.findAll(new RecipeSpecificationBuilder(ingredientIndex)
+                .withIncludedIngredients(List.of("salt"))
+                .build(), PageRequest.of(0, 5)).getTotalElements()).isEqualTo(1001);
+        assertThat(recipeService.findAll(new RecipeSpecificationBuilder(ingredientIndex)
+                .withExcludedIngredients(List.of("salt"))
+                .build(), PageRequest.of(0, 5)).getTotalElements()).isEqualTo(1);
+        assertThat(recipeService.findAll(new RecipeSpecificationBuilder(ingredientIndex)
+                .withIncludedIngredients(List.of("sallt"), true)
+                .build(), PageRequest.of(0, 5)).getTotalElements()).isEqualTo(1001);
+        assertThat(recipeService.findAll(new RecipeSpecificationBuilder(ingredientIndex)
+                .withExcludedIngredients(List.of("sallt"), true)
+                .build(), PageRequest.of(0, 5)).getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    void willMatchTermsShorterThanATrigram_withSqlPredicates() {
+        //given
+        recipeService.insertAll(List.of(recipe("Salted", "Sea salt"), recipe("Peppered", "Black pepper")));
+
+        //then
+        assertThat(ingredientIndex.isReady()).isTrue();
+        assertThat(recipeService.findAll(new RecipeSpecificationBuilder(ingredientIndex)
+                .withIncludedIngredients(List.of("pe"))
+                .build(), PageRequest.of(0, 5)).getContent()).extracting(RecipeDTO::getName)
+                .containsExactly("Peppered");
+        assertThat(recipeService.findAll(new RecipeSpecificationBuilder(ingredientIndex)
+                .withExcludedIngredients(List.of("pe"), true)
+                .build(), PageRequest.of(0, 5)).getContent()).extracting(RecipeDTO::getName)
+                .containsExactly("Salted");
+    }
+
+    @Test
+    void willNarrowInstructionFilters_withInstructionIndex_afterInstructionWrites() {
+        //given
+        SortedSet<Instruction> instructions = new TreeSet<>(List.of(Instruction.builder()
+                .description("Chop the tomatoes")
+                .step(1)
+                .build()));
+
+        SortedSet<Ingredient> ingredients = new TreeSet<>(Set.of(Ingredient.builder()
+                .description("5 Tomatoes")
+                .build()));
+
+        //and
+        Recipe recipe = createRecipe("Classic Chicken", 5, 2, 10,
+                CategoryType.CHICKEN, ingredients, instructions);
+        Instruction chop = recipe.getInstructions().first();
+
+        //when
+        recipeService.addInstructions(recipe.getId(), List.of(InstructionDTO.builder()
+                .description("Simmer slowly")
+                .step(2)
+                .build()));
+
+        //then
+        assertThat(instructionIndex.isReady()).isTrue();
+        assertThat(recipeService.findAll(new RecipeSpecificationBuilder(ingredientIndex, instructionIndex,
+                        RecipeSpecificationBuilder.FilterMode.EXISTS)
+                .withInstructions(List.of("CHOP", "simmer"))
+                .build(), PageRequest.of(0, 5)).getTotalElements()).isEqualTo(1);
+
+        //when
+        recipeService.deleteInstructions(recipe.getId(), List.of(chop.getId()));
+
+        //then
+        assertThat(recipeService.findAll(new RecipeSpecificationBuilder(ingredientIndex, instructionIndex,
+                        RecipeSpecificationBuilder.FilterMode.EXISTS)
+                .withInstructions(List.of("chop"))
+                .build(), PageRequest.of(0, 5)).getTotalElements()).isZero();
+    }
+
+    @Test
+    void willIntersectCategoryServingsAndIngredientFilters_asBitmaps_afterRecipeWrites() {
+        //given
+        Recipe stew = createRecipe("Beef Stew", 4, 10, 90, CategoryType.BEEF,
+                new TreeSet<>(Set.of(Ingredient.builder().description("2 garlic cloves").build())),
+                instructions("Simmer"));
+        createRecipe("Buttered Beef", 4, 10, 30, CategoryType.BEEF,
+                new TreeSet<>(Set.of(Ingredient.builder().description("Garlic butter").build())),
+                instructions("Simmer"));
+        createRecipe("Garlic Chicken", 4, 10, 40, CategoryType.CHICKEN,
+                new TreeSet<>(Set.of(Ingredient.builder().description("Garlic").build())),
+                instructions("Simmer"));
+        createRecipe("Beef Roast", 6, 10, 120, CategoryType.BEEF,
+                new TreeSet<>(Set.of(Ingredient.builder().description("Garlic").build())),
+                instructions("Simmer"));
+
+        //then
+        assertThat(bitmapIndex.isReady()).isTrue();
+        assertThat(recipeService.findAll(bitmapFilters()
+                .withCategory(CategoryDTO.BEEF)
+                .withServings(4)
+                .withIncludedIngredients(List.of("garlic"))
+                .withExcludedIngredients(List.of("butter"))
+                .build(), PageRequest.of(0, 5)).getContent()).extracting(RecipeDTO::getId)
+                .containsExactly(stew.getId());
+        assertThat(recipeService.findAll(bitmapFilters()
+                .withServings(4)
+                .withExcludedIngredients(List.of("butter"))
+                .build(), PageRequest.of(0, 5)).getTotalElements()).isEqualTo(2);
+
+        //when
+        recipeService.update(stew.getId(), UpdateRecipeDTO.builder()
+                .categoryType(CategoryDTO.CHICKEN)
+                .build());
+
+        //then
+        assertThat(recipeService.findAll(bitmapFilters()
+                .withCategory(CategoryDTO.CHICKEN)
+                .withServings(4)
+                .build(), PageRequest.of(0, 5)).getTotalElements()).isEqualTo(2);
+        assertThat(recipeService.findAll(bitmapFilters()
+                .withCategory(CategoryDTO.BEEF)
+                .withServings(4)
+                .withExcludedIngredients(List.of("butter"))
+                .build(), PageRequest.of(0, 5)).getTotalElements()).isZero();
+    }
+
+    @Test
+    void willLeaveCategoryAndServingsFiltersToTheDatabase_whenNoIndexRestrictsTheRecipes() {
+        //given
+        Recipe stew = createRecipe("Beef Stew", 4, 10, 90, CategoryType.BEEF,
+                new TreeSet<>(Set.of(Ingredient.builder().description("2 garlic cloves").build())),
+                instructions("Simmer"));
+        // as if written by another instance, whose change has not reached this index
+        bitmapIndex.remove(stew.getId());
+
+        //then
+        assertThat(recipeService.findAll(bitmapFilters()
+                .withCategory(CategoryDTO.BEEF)
+                .withServings(4)
+                .build(), PageRequest.of(0, 5)).getContent()).extracting(RecipeDTO::getId)
+                .containsExactly(stew.getId());
+        assertThat(recipeService.findAll(bitmapFilters()
+                .withServings(4)
+                .withExcludedIngredients(List.of("butter"))
+                .build(), PageRequest.of(0, 5)).getContent()).extracting(RecipeDTO::getId)
+                .containsExactly(stew.getId());
+    }
+
     @Test
     void willReturnEmptyRecipesPage_whenVegetarianCategoryIsPassed_whenNonVegetarianRecipesExists() {
         //given
@@ -756,6 +1060,77 @@ class RecipeServiceTest {
         assertThat(recipe.getIngredients()).doesNotContain(ingredient.get());
     }
 
+    @Test
+    void willWriteIngredientsAndInstructions_withSameStatements_whateverTheRecipeSize() {
+        //given
+        Recipe small = createRecipeWithIngredients("Small recipe", 2);
+        Recipe large = createRecipeWithIngredients("Large recipe", 1000);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        //when
+        long smallStatements = writeFirstIngredientAndInstruction(small, statistics);
+        long largeStatements = writeFirstIngredientAndInstruction(large, statistics);
+
+        //then
+        assertThat(largeStatements).isEqualTo(smallStatements);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(2);
+
+        //and
+        Recipe reloaded = repository.findById(large.getId()).get();
+        assertThat(reloaded.getVersion()).isEqualTo(large.getVersion() + 4);
+        assertThat(reloaded.getIngredients()).hasSize(999)
+                .extracting(Ingredient::getDescription)
+                .doesNotContain("Ingredient 0")
+                .contains("Ingredient 1");
+        assertThat(reloaded.getInstructions()).extracting(Instruction::getDescription)
+                .containsExactly("Stir well");
+    }
+
+    @Test
+    void willThrowRecipeNotFoundException_whenDeletingIngredientsOfNonExistingRecipe() {
+        //given
+        UUID recipeId = UUID.randomUUID();
+
+        //then
+        assertThatThrownBy(() -> recipeService.deleteIngredients(recipeId, List.of(UUID.randomUUID())))
+                .isInstanceOf(RecipeNotFoundException.class);
+    }
+
+    @Test
+    void willThrowInvalidRequestException_whenDeletingEveryIngredientOrInstruction() {
+        //given
+        Recipe recipe = createRecipeWithIngredients("Stripped recipe", 2);
+        List<UUID> ingredientIds = recipe.getIngredients().stream().map(Ingredient::getId).toList();
+        List<UUID> instructionIds = recipe.getInstructions().stream().map(Instruction::getId).toList();
+
+        //then
+        assertThatThrownBy(() -> recipeService.deleteIngredients(recipe.getId(), ingredientIds))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> recipeService.deleteInstructions(recipe.getId(), instructionIds))
+                .isInstanceOf(InvalidRequestException.class);
+
+        //and
+        Recipe reloaded = repository.findById(recipe.getId()).get();
+        assertThat(reloaded.getIngredients()).hasSize(2);
+        assertThat(reloaded.getInstructions()).hasSize(2);
+        assertThat(reloaded.getVersion()).isEqualTo(recipe.getVersion());
+    }
+
+    @Test
+    void willThrowRecipePreconditionFailedException_whenDeletingIngredients_atStaleVersion() {
+        //given
+        Recipe recipe = createRecipeWithIngredients("Versioned recipe", 2);
+        UUID ingredientId = recipe.getIngredients().first().getId();
+
+        //then
+        assertThatThrownBy(() -> recipeService.deleteIngredients(recipe.getId(), List.of(ingredientId),
+                recipe.getVersion() + 1))
+                .isInstanceOf(RecipePreconditionFailedException.class);
+        assertThat(repository.findById(recipe.getId()).get().getIngredients()).hasSize(2);
+    }
+
     @Test
     void testWillThrowException_whenDeleteRecipeNotExisting() {
         //given
@@ -766,6 +1141,70 @@ class RecipeServiceTest {
                 .isInstanceOf(InvalidRequestException.class);
     }
 
+    private Recipe createRecipeWithIngredients(String name, int ingredientCount) {
+        SortedSet<Ingredient> ingredients = new TreeSet<>();
+        for (int i = 0; i < ingredientCount; i++) {
+            ingredients.add(Ingredient.builder()
+                    .description("Ingredient " + i)
+                    .build());
+        }
+        SortedSet<Instruction> instructions = new TreeSet<>(List.of(Instruction.builder()
+                        .description("Mix everything")
+                        .step(1)
+                        .build(),
+                Instruction.builder()
+                        .description("Serve")
+                        .step(2)
+                        .build()));
+        return createRecipe(name, 2, 10, 20, CategoryType.VEGETARIAN, ingredients, instructions);
+    }
+
+    /**
+     * <p>Updates and deletes the first ingredient and instruction of the recipe, returning the statements it took</p>
+     */
+    private long writeFirstIngredientAndInstruction(Recipe recipe, Statistics statistics) {
+        UUID ingredientId = recipe.getIngredients().first().getId();
+        UUID firstInstructionId = recipe.getInstructions().first().getId();
+        UUID lastInstructionId = recipe.getInstructions().last().getId();
+
+        statistics.clear();
+        recipeService.updateIngredients(recipe.getId(), List.of(IngredientDTO.builder()
+                .id(ingredientId)
+                .description("Changed ingredient")
+                .build()));
+        recipeService.deleteIngredients(recipe.getId(), List.of(ingredientId));
+        recipeService.updateInstructions(recipe.getId(), List.of(InstructionDTO.builder()
+                .id(lastInstructionId)
+                .description("Stir well")
+                .build()));
+        recipeService.deleteInstructions(recipe.getId(), List.of(firstInstructionId));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static Recipe recipe(String name, String ingredient) {
+        return Recipe.builder()
+                .name(name)
+                .servings(2)
+                .preparationTime(5)
+                .cookingTime(10)
+                .categoryType(CategoryType.OTHER)
+                .ingredients(new TreeSet<>(List.of(Ingredient.builder().description(ingredient).build())))
+                .instructions(new TreeSet<>(List.of(Instruction.builder().description("Season").step(1).build())))
+                .build();
+    }
+
+    private SortedSet<Instruction> instructions(String description) {
+        return new TreeSet<>(List.of(Instruction.builder()
+                .description(description)
+                .step(1)
+                .build()));
+    }
+
+    private RecipeSpecificationBuilder bitmapFilters() {
+        return new RecipeSpecificationBuilder(ingredientIndex, instructionIndex, bitmapIndex,
+                RecipeSpecificationBuilder.FilterMode.EXISTS);
+    }
+
     private Recipe createRecipe(String name, int servings, int prepTime, int cookingTime,
                                 CategoryType categoryType, SortedSet<Ingredient> ingredients, SortedSet<Instruction> instructions) {
         return repository.save(Recipe.builder()
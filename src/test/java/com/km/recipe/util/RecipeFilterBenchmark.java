@@ -0,0 +1,145 @@
+package com.km.recipe.util;
+
+import com.km.recipe.BenchmarkCatalogue;
+import com.km.recipe.domain.CategoryType;
+import com.km.recipe.domain.Recipe;
+import com.km.recipe.domain.repository.RecipeRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * <p>Compares the {@link RecipeSpecificationBuilder.FilterMode#JOIN} and {@link RecipeSpecificationBuilder.FilterMode#EXISTS}
+ * compilation of ingredient and instruction filters. Run with {@code mvn test -Pbenchmark}, optionally overriding the
+ * catalogue sizes with {@code -Dbenchmark.sizes=10000,100000,1000000}.</p>
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.km.recipe.util.RecipeFilterBenchmark$CapturingInspector"
+})
+class RecipeFilterBenchmark {
+
+    private static final String[] INGREDIENTS = {"Tomatoes", "Onion", "Garlic", "Sea salt", "Olive oil", "Beef cubes",
+            "Chicken breast", "Basil", "Parmesan", "Vinegar", "Pepper", "Butter"};
+    private static final String[] INSTRUCTIONS = {"Chop the vegetables", "Heat the oven", "Fry in a pan", "Simmer slowly",
+            "Season to taste", "Serve warm"};
+    private static final int ITERATIONS = 5;
+
+    @Autowired
+    private RecipeRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private BenchmarkCatalogue catalogue;
+
+    @BeforeEach
+    void setUp() {
+        catalogue = new BenchmarkCatalogue(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalogue.clear();
+    }
+
+    @Test
+    void compareJoinAndExistsFilterModes() {
+        int seeded = 0;
+        for (int size : sizes()) {
+            seed(seeded, size);
+            seeded = size;
+
+            for (RecipeSpecificationBuilder.FilterMode mode : RecipeSpecificationBuilder.FilterMode.values()) {
+                Specification<Recipe> specification = new RecipeSpecificationBuilder(null, mode)
+                        .withIncludedIngredients(List.of("tomato", "garlic", "oil", "basil", "salt"))
+                        .withExcludedIngredients(List.of("beef"))
+                        .withInstructions(List.of("oven"))
+                        .build();
+
+                double medianMs = BenchmarkCatalogue.medianMillis(ITERATIONS, () -> {
+                    CapturingInspector.STATEMENTS.clear();
+                    repository.findAll(specification, PageRequest.of(0, 20));
+                });
+
+                long rowsScanned = CapturingInspector.STATEMENTS.stream()
+                        .mapToLong(this::rowsScanned)
+                        .sum();
+
+                System.out.printf("recipes=%d mode=%s medianMs=%.2f rowsScanned=%d%n",
+                        size, mode, medianMs, rowsScanned);
+                assertThat(rowsScanned).isPositive();
+            }
+        }
+    }
+
+    private long rowsScanned(String sql) {
+        String explain = jdbcTemplate.query("EXPLAIN ANALYZE " + sql, ps -> {
+            int parameters = (int) sql.chars().filter(c -> c == '?').count();
+            // only the page offset and limit are bound, every filter value is inlined
+            for (int i = 1; i <= parameters; i++) {
+                ps.setInt(i, i == parameters ? 20 : 0);
+            }
+        }, rs -> rs.next() ? rs.getString(1) : "");
+
+        long total = 0;
+        Matcher matcher = Pattern.compile("scanCount: (\\d+)").matcher(explain);
+        while (matcher.find()) {
+            total += Long.parseLong(matcher.group(1));
+        }
+        return total;
+    }
+
+    private void seed(int from, int to) {
+        Random random = new Random(from);
+        for (int i = from; i < to; i++) {
+            catalogue.add("Recipe " + i, CategoryType.OTHER, 1 + random.nextInt(8),
+                    random.ints(0, INGREDIENTS.length).distinct().limit(5)
+                            .mapToObj(index -> INGREDIENTS[index])
+                            .toList(),
+                    random.ints(0, INSTRUCTIONS.length).distinct().limit(3)
+                            .mapToObj(index -> INSTRUCTIONS[index])
+                            .toList());
+        }
+        catalogue.flush();
+    }
+
+    private static int[] sizes() {
+        return Arrays.stream(System.getProperty("benchmark.sizes", "10000,100000,1000000").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .sorted()
+                .toArray();
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        private static final Pattern RECIPE_QUERY = Pattern.compile("^select .* from recipe r\\d+_0");
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (RECIPE_QUERY.matcher(sql).find()) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
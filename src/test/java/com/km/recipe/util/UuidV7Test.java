@@ -0,0 +1,54 @@
+package com.km.recipe.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7Test {
+
+    @Test
+    void willGenerateVersion7Uuids_holdingTheirCreationTime() {
+        //given
+        long before = System.currentTimeMillis();
+
+        //when
+        UUID uuid = UuidV7.next();
+
+        //then
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(UuidV7.millis(uuid)).isBetween(before, System.currentTimeMillis() + 1);
+    }
+
+    @Test
+    void willGenerateIncreasingUuids_withinAMillisecond_andWhenTheClockStepsBack() {
+        //given
+        long now = System.currentTimeMillis();
+        AtomicLong clock = new AtomicLong(now);
+        UuidV7 generator = new UuidV7(clock::get);
+        List<UUID> uuids = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < 10_000; i++) {
+            uuids.add(generator.generate());
+        }
+        clock.addAndGet(-1_000);
+        uuids.add(generator.generate());
+
+        //then
+        assertThat(uuids).isSortedAccordingTo(UuidV7Test::compareUnsigned).doesNotHaveDuplicates();
+        assertThat(uuids).allSatisfy(uuid -> assertThat(uuid.version()).isEqualTo(7));
+        assertThat(UuidV7.millis(uuids.get(0))).isEqualTo(now);
+    }
+
+    private static int compareUnsigned(UUID left, UUID right) {
+        int result = Long.compareUnsigned(left.getMostSignificantBits(), right.getMostSignificantBits());
+        return result != 0 ? result
+                : Long.compareUnsigned(left.getLeastSignificantBits(), right.getLeastSignificantBits());
+    }
+}